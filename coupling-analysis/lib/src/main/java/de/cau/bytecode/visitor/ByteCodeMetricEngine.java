@@ -0,0 +1,123 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.bytecode.visitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.Method;
+
+import de.cau.monitor.metrics.ACoupling;
+import de.cau.monitor.metrics.CouplingTag;
+import de.cau.monitor.metrics.IMethodCallCoupling;
+import de.cau.monitor.metrics.MethodVisitorRegisterStrategy;
+import de.cau.monitor.metrics.StructalDebtIndex;
+
+/**
+ * Calculates all bytecode metrics in one pass. Every class is visited once and
+ * the code of every method is scanned once. Method calls found on the way are
+ * handed to all metrics based on method calls, the remaining metrics are
+ * calculated on the same class.
+ *
+ */
+public class ByteCodeMetricEngine {
+
+	private final List<ACoupling> classMetrics;
+	private final List<StructalDebtIndex> indexMetrics;
+	private final MethodVisitorRegisterStrategy strategy;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param metrics sorted by their priority.
+	 */
+	public ByteCodeMetricEngine(final List<ACoupling> metrics) {
+
+		final List<MethodVisitorRegisterStrategy> strategies = new ArrayList<>();
+		this.classMetrics = new ArrayList<>();
+		this.indexMetrics = new ArrayList<>();
+
+		for (final ACoupling coupl : metrics) {
+
+			if (coupl.getNameTag() == CouplingTag.STRUCTUAL_DEBT_INDEX) {
+				indexMetrics.add((StructalDebtIndex) coupl);
+			} else if (coupl instanceof IMethodCallCoupling) {
+				strategies.add(((IMethodCallCoupling) coupl).getMethodVisitorStrategy());
+			} else {
+				classMetrics.add(coupl);
+			}
+		}
+		this.strategy = combine(strategies);
+	}
+
+	/**
+	 * Combines the given strategies to one, that dispatches every call to all of
+	 * them.
+	 * 
+	 * @param strategies
+	 * @return the combined strategy or {@code null} if there is none.
+	 */
+	private static MethodVisitorRegisterStrategy combine(final List<MethodVisitorRegisterStrategy> strategies) {
+
+		if (strategies.isEmpty())
+			return null;
+		if (strategies.size() == 1)
+			return strategies.get(0);
+
+		final MethodVisitorRegisterStrategy[] all = strategies.toArray(new MethodVisitorRegisterStrategy[0]);
+		return (classFrom, classTo, methodTo) -> {
+			for (final MethodVisitorRegisterStrategy s : all) {
+				s.registerCoupling(classFrom, classTo, methodTo);
+			}
+		};
+	}
+
+	/**
+	 * Calculates all metrics for the given class. Interfaces are skipped.
+	 * 
+	 * @param javaClass
+	 */
+	public void visitClass(final JavaClass javaClass) {
+
+		if (javaClass.isInterface())
+			return;
+
+		for (final ACoupling coupl : classMetrics) {
+			coupl.calculateCoupling(javaClass);
+		}
+
+		if (strategy != null) {
+			final MethodVisitor mv = new MethodVisitor(javaClass.getClassName(), javaClass.getConstantPool(),
+					strategy);
+
+			for (final Method md : javaClass.getMethods()) {
+				mv.visitMethod(md);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the metrics that depend on the result of all classes, like the
+	 * SDI.
+	 */
+	public void finish() {
+		for (final StructalDebtIndex sdi : indexMetrics) {
+			sdi.calculateByteCodeIndex();
+		}
+	}
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.bytecode.visitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.bcel.Const;
+import org.apache.bcel.classfile.ClassFormatException;
+
+/**
+ * The header of a class file: the constant pool, the access flags, the class
+ * name, the super class and the interfaces. Reading stops right after the
+ * interfaces, so fields, methods and attributes are never touched. This is
+ * enough for dependency and hierarchy information and a lot cheaper than a
+ * full parse with BCEL.
+ *
+ */
+public class ClassHeader {
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private final String className;
+	private final String superClassName;
+	private final String[] interfaceNames;
+	private final int accessFlags;
+	private final List<String> constantClassNames;
+
+	private ClassHeader(final String className, final String superClassName, final String[] interfaceNames,
+			final int accessFlags, final List<String> constantClassNames) {
+		this.className = className;
+		this.superClassName = superClassName;
+		this.interfaceNames = interfaceNames;
+		this.accessFlags = accessFlags;
+		this.constantClassNames = constantClassNames;
+	}
+
+	/**
+	 * Reads the header of the given class file.
+	 *
+	 * @param bytes content of a class file
+	 * @return the header
+	 * @throws ClassFormatException if the bytes are not a valid class file, e.g.
+	 *                              if it is truncated.
+	 */
+	public static ClassHeader read(final byte[] bytes) {
+
+		if (bytes.length < 10 || readInt(bytes, 0) != MAGIC)
+			throw new ClassFormatException("Not a class file!");
+
+		// Skip magic and version.
+		int pos = 8;
+		final int count = readUnsignedShort(bytes, pos);
+		pos += 2;
+
+		// Position of each constant, only utf8 and class entries are decoded.
+		final int[] offsets = new int[count];
+		final byte[] tags = new byte[count];
+
+		for (int i = 1; i < count; i++) {
+			checkLength(bytes, pos, 1);
+			final byte tag = bytes[pos];
+			tags[i] = tag;
+			offsets[i] = pos + 1;
+
+			switch (tag) {
+			case Const.CONSTANT_Utf8:
+				pos += 3 + readUnsignedShort(bytes, pos + 1);
+				break;
+			case Const.CONSTANT_Class:
+			case Const.CONSTANT_String:
+			case Const.CONSTANT_MethodType:
+			case 19: // Module
+			case 20: // Package
+				pos += 3;
+				break;
+			case Const.CONSTANT_MethodHandle:
+				pos += 4;
+				break;
+			case Const.CONSTANT_Integer:
+			case Const.CONSTANT_Float:
+			case Const.CONSTANT_Fieldref:
+			case Const.CONSTANT_Methodref:
+			case Const.CONSTANT_InterfaceMethodref:
+			case Const.CONSTANT_NameAndType:
+			case 17: // Dynamic
+			case Const.CONSTANT_InvokeDynamic:
+				pos += 5;
+				break;
+			case Const.CONSTANT_Long:
+			case Const.CONSTANT_Double:
+				pos += 9;
+				// Takes two entries.
+				i++;
+				break;
+			default:
+				throw new ClassFormatException("Invalid byte tag in constant pool: " + tag);
+			}
+		}
+
+		final List<String> constantClassNames = new ArrayList<>();
+		for (int i = 1; i < count; i++) {
+			if (tags[i] == Const.CONSTANT_Class) {
+				constantClassNames.add(readUtf8(bytes, offsets, tags, readUnsignedShort(bytes, offsets[i])));
+			}
+		}
+
+		final int accessFlags = readUnsignedShort(bytes, pos);
+		final String className = readClassName(bytes, offsets, tags, readUnsignedShort(bytes, pos + 2));
+		final int superClassIndex = readUnsignedShort(bytes, pos + 4);
+
+		// Only java.lang.Object has no super class, BCEL names it the same way.
+		final String superClassName = superClassIndex == 0 ? "java.lang.Object"
+				: readClassName(bytes, offsets, tags, superClassIndex);
+
+		final int interfaceCount = readUnsignedShort(bytes, pos + 6);
+		final String[] interfaceNames = new String[interfaceCount];
+		for (int i = 0; i < interfaceCount; i++) {
+			interfaceNames[i] = readClassName(bytes, offsets, tags, readUnsignedShort(bytes, pos + 8 + 2 * i));
+		}
+
+		return new ClassHeader(className, superClassName, interfaceNames, accessFlags,
+				Collections.unmodifiableList(constantClassNames));
+	}
+
+	/**
+	 * Reads the name of the class constant at the given index in package
+	 * notation.
+	 */
+	private static String readClassName(final byte[] bytes, final int[] offsets, final byte[] tags,
+			final int classIndex) {
+		checkConstant(tags, classIndex, Const.CONSTANT_Class);
+		return readUtf8(bytes, offsets, tags, readUnsignedShort(bytes, offsets[classIndex])).replace('/', '.');
+	}
+
+	/**
+	 * Decodes the utf8 constant at the given index.
+	 */
+	private static String readUtf8(final byte[] bytes, final int[] offsets, final byte[] tags,
+			final int utf8Index) {
+
+		checkConstant(tags, utf8Index, Const.CONSTANT_Utf8);
+		final int start = offsets[utf8Index] + 2;
+		final int length = readUnsignedShort(bytes, offsets[utf8Index]);
+		checkLength(bytes, start, length);
+
+		for (int i = start; i < start + length; i++) {
+
+			// Class files use modified UTF-8, which only differs for non ASCII characters.
+			if (bytes[i] < 0) {
+				try {
+					return new DataInputStream(new ByteArrayInputStream(bytes, start - 2, length + 2)).readUTF();
+				} catch (final IOException e) {
+					throw new ClassFormatException("Invalid utf8 constant: " + e.getMessage());
+				}
+			}
+		}
+		return new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Checks that the constant at the given index exists and has the given tag.
+	 */
+	private static void checkConstant(final byte[] tags, final int index, final byte tag) {
+		if (index <= 0 || index >= tags.length || tags[index] != tag)
+			throw new ClassFormatException("Invalid constant pool index: " + index);
+	}
+
+	/**
+	 * Checks that the given number of bytes can be read at the given position.
+	 */
+	private static void checkLength(final byte[] bytes, final int pos, final int length) {
+		if (pos + length > bytes.length)
+			throw new ClassFormatException("Truncated class file at position " + pos);
+	}
+
+	private static int readUnsignedShort(final byte[] bytes, final int pos) {
+		checkLength(bytes, pos, 2);
+		return (bytes[pos] & 0xff) << 8 | bytes[pos + 1] & 0xff;
+	}
+
+	private static int readInt(final byte[] bytes, final int pos) {
+		checkLength(bytes, pos, 4);
+		return (bytes[pos] & 0xff) << 24 | (bytes[pos + 1] & 0xff) << 16 | (bytes[pos + 2] & 0xff) << 8
+				| bytes[pos + 3] & 0xff;
+	}
+
+	/**
+	 * Get the fully-qualified class name.
+	 *
+	 * @return class name in package notation
+	 */
+	public String getClassName() {
+		return className;
+	}
+
+	/**
+	 * Get the package name of the class.
+	 *
+	 * @return package name or an empty String for the default package.
+	 */
+	public String getPackageName() {
+		final int index = className.lastIndexOf('.');
+		return index < 0 ? "" : className.substring(0, index);
+	}
+
+	/**
+	 * Get the fully-qualified name of the super class.
+	 *
+	 * @return super class name in package notation
+	 */
+	public String getSuperClassName() {
+		return superClassName;
+	}
+
+	/**
+	 * Get the fully-qualified names of all directly implemented interfaces.
+	 *
+	 * @return interface names in package notation
+	 */
+	public String[] getInterfaceNames() {
+		return interfaceNames;
+	}
+
+	/**
+	 * Get the names of all class constants in 'path notation', like BCEL returns
+	 * them. Arrays are given as descriptor (e.g. [La/b/ClassName;).
+	 *
+	 * @return names of all class constants
+	 */
+	public List<String> getConstantClassNames() {
+		return constantClassNames;
+	}
+
+	public boolean isInterface() {
+		return (accessFlags & Const.ACC_INTERFACE) != 0;
+	}
+
+	public boolean isAnnotation() {
+		return (accessFlags & Const.ACC_ANNOTATION) != 0;
+	}
+
+	public boolean isEnum() {
+		return (accessFlags & Const.ACC_ENUM) != 0;
+	}
+}
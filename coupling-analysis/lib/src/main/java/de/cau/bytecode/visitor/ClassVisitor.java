@@ -16,22 +16,29 @@
 
 package de.cau.bytecode.visitor;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Enumeration;
-import java.util.LinkedList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
-import org.apache.bcel.Repository;
 import org.apache.bcel.classfile.ClassFormatException;
 import org.apache.bcel.classfile.ClassParser;
 import org.apache.bcel.classfile.JavaClass;
 
 import de.cau.config.Configuration;
 import de.cau.monitor.CouplingMonitor;
+import de.cau.monitor.metrics.ACoupling;
+import de.cau.monitor.metrics.CouplingTag;
 
 /**
  * This class can visit all class files used for the bytecode analysis.
@@ -40,33 +47,36 @@ import de.cau.monitor.CouplingMonitor;
 public class ClassVisitor {
 
 	private final CouplingMonitor cm;
-	private final List<JavaClass> allProjectClassFiles;
+	private final Collection<JavaClass> allProjectClassFiles;
+	private final Collection<ClassHeader> allProjectClassHeaders;
+	private boolean isHeaderOnly;
+	private ByteCodeMetricEngine streamingEngine;
 
 	public ClassVisitor(final CouplingMonitor cm) {
 		this.cm = cm;
-		allProjectClassFiles = new LinkedList<>();
+		allProjectClassFiles = new ConcurrentLinkedQueue<>();
+		allProjectClassHeaders = new ConcurrentLinkedQueue<>();
 	}
 
 	/**
-	 * Collecting all *.jar files.
+	 * Collecting all *.jar files. The archive is opened once and every class file
+	 * is parsed from its byte buffer.
 	 * 
 	 * @param pathToJarFile
 	 */
 	private void collectJarFile(final String pathToJarFile) {
 
 		try {
-			final JarFile jar = new JarFile(pathToJarFile);
-			final Enumeration<JarEntry> entries = jar.entries();
-
-			while (entries.hasMoreElements()) {
-				final JarEntry entry = entries.nextElement();
-
-				if (entry.getName().endsWith(".class")) {
-					final JavaClass javaClass = new ClassParser(pathToJarFile, entry.getName()).parse();
-					addClass(javaClass);
+			JarReader.readClassFiles(pathToJarFile, (entryName, bytes) -> {
+				final String location = pathToJarFile + CouplingMonitor.JAR_SEPARATOR + entryName;
+				if (isHeaderOnly) {
+					addClassHeader(ClassHeader.read(bytes), location);
+				} else if (streamingEngine != null) {
+					analyseClass(new ClassParser(new ByteArrayInputStream(bytes), entryName).parse());
+				} else {
+					addClass(new ClassParser(new ByteArrayInputStream(bytes), entryName).parse(), location);
 				}
-			}
-			jar.close();
+			});
 
 		} catch (final IOException e) {
 			e.printStackTrace();
@@ -81,14 +91,24 @@ public class ClassVisitor {
 	 */
 	public void visitAllJavaClasses(final String[] jarAndClassFiles) {
 
-		for (final String jarOrClassFile : jarAndClassFiles) {
+		cm.getClassHierarchy().clear();
+		cm.clearClassFiles();
 
-			if (jarOrClassFile.endsWith(".jar")) {
-				this.collectJarFile(jarOrClassFile);
+		// If imports are the only metric, the class files do not need to be parsed
+		// completely.
+		isHeaderOnly = isImportOnly(Configuration.getBytecodeCodeMetrics());
 
-			} else if (jarOrClassFile.endsWith(".class")) {
-				this.collectJavaClass(jarOrClassFile);
-			}
+		if (Configuration.isStreamingByteCode && !isHeaderOnly) {
+			visitAllJavaClassesStreaming(jarAndClassFiles);
+			return;
+		}
+
+		collectAll(jarAndClassFiles);
+
+		if (isHeaderOnly) {
+			registerClassHeaders();
+			cm.registerByteCodeImportCoupling(allProjectClassHeaders);
+			return;
 		}
 
 		cm.registerAllClasses(
@@ -107,33 +127,196 @@ public class ClassVisitor {
 	}
 
 	/**
-	 * Collect all {@link JavaClass} and add them to the BCEL Repository.
+	 * Visiting all jar and class files in two passes, without keeping the parsed
+	 * classes in memory. The first pass only reads the class headers to register
+	 * all classes and packages. The second pass reads every file again, parses
+	 * every class, calculates all metrics for it and drops it right away. Only
+	 * the headers are kept between both passes.
+	 * 
+	 * @param jarAndClassFiles
+	 */
+	private void visitAllJavaClassesStreaming(final String[] jarAndClassFiles) {
+
+		isHeaderOnly = true;
+		collectAll(jarAndClassFiles);
+		registerClassHeaders();
+		allProjectClassHeaders.clear();
+
+		final ByteCodeMetricEngine engine = cm.prepareByteCodeCoupling();
+		isHeaderOnly = false;
+		streamingEngine = engine;
+		try {
+			collectAll(jarAndClassFiles);
+		} finally {
+			streamingEngine = null;
+		}
+		engine.finish();
+	}
+
+	/**
+	 * Collecting all jar and class files, with a pool of workers if configured.
+	 * 
+	 * @param jarAndClassFiles
+	 */
+	private void collectAll(final String[] jarAndClassFiles) {
+
+		final List<Runnable> tasks = new ArrayList<>(jarAndClassFiles.length);
+		for (final String jarOrClassFile : jarAndClassFiles) {
+			tasks.add(() -> collect(jarOrClassFile));
+		}
+		runAll(tasks);
+	}
+
+	/**
+	 * Register the names of all collected class headers to the coupling monitor
+	 * and their packages to the white list.
+	 */
+	private void registerClassHeaders() {
+
+		cm.registerAllClasses(
+				allProjectClassHeaders
+						.stream()
+						.map(ClassHeader::getClassName)
+						.collect(Collectors.toSet()));
+
+		Configuration.addAllToWhiteList(
+				allProjectClassHeaders
+						.stream()
+						.map(ClassHeader::getPackageName)
+						.collect(Collectors.toSet()));
+	}
+
+	/**
+	 * Check if imports are the only metric.
+	 * 
+	 * @param metrics
+	 * @return {@code true} if there is no other metric than imports, otherwise
+	 *         {@code false}
+	 */
+	private static boolean isImportOnly(final List<ACoupling> metrics) {
+		return !metrics.isEmpty() && metrics.stream().allMatch(coupl -> coupl.getNameTag() == CouplingTag.IMPORT);
+	}
+
+	/**
+	 * Collecting a single jar or class file.
+	 * 
+	 * @param jarOrClassFile
+	 */
+	private void collect(final String jarOrClassFile) {
+
+		if (jarOrClassFile.endsWith(".jar")) {
+			this.collectJarFile(jarOrClassFile);
+
+		} else if (jarOrClassFile.endsWith(".class")) {
+			this.collectJavaClass(jarOrClassFile);
+		}
+	}
+
+	/**
+	 * Runs the given tasks with a pool of {@link Configuration#workerThreads}
+	 * worker threads, or one after another in the calling thread if there is only
+	 * one. Every task is run by exactly one worker, the parsed classes end up in
+	 * the same concurrent collections as in the sequential mode.
+	 * 
+	 * @param tasks
+	 */
+	private static void runAll(final List<Runnable> tasks) {
+
+		if (Configuration.workerThreads <= 1) {
+			tasks.forEach(Runnable::run);
+			return;
+		}
+
+		final ExecutorService workers = Executors.newFixedThreadPool(Configuration.workerThreads);
+
+		try {
+			final List<Future<?>> futures = new ArrayList<>(tasks.size());
+			for (final Runnable task : tasks) {
+				futures.add(workers.submit(task));
+			}
+
+			// Wait for all workers, failures are raised in the calling thread.
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Collecting class files was interrupted!", e);
+		} catch (final ExecutionException e) {
+			throw new IllegalStateException("Collecting class files failed!", e.getCause());
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Collect all {@link JavaClass}.
 	 * 
 	 * @param pathToClassFile
 	 */
 	private void collectJavaClass(final String pathToClassFile) {
 
-		final ClassParser parser = new ClassParser(pathToClassFile);
-
 		try {
-			final JavaClass javaClass = parser.parse();
-			// Caching java classes
-			// this is necessary to resolve dependencies between classes later.
-			Repository.addClass(javaClass);
-			addClass(javaClass);
+			if (isHeaderOnly) {
+				addClassHeader(ClassHeader.read(Files.readAllBytes(Path.of(pathToClassFile))), pathToClassFile);
+				return;
+			}
+			if (streamingEngine != null) {
+				analyseClass(new ClassParser(pathToClassFile).parse());
+				return;
+			}
+
+			addClass(new ClassParser(pathToClassFile).parse(), pathToClassFile);
 		} catch (ClassFormatException | IOException e) {
 			e.printStackTrace();
 		}
 	}
 
 	/**
-	 * Simply adding {@link JavaClass} with conditions.
+	 * Simply adding {@link JavaClass} with conditions. Every class is added to the
+	 * class hierarchy and its location is registered.
 	 * 
 	 * @param javaClass
+	 * @param location  of the class file
 	 */
-	private void addClass(final JavaClass javaClass) {
+	private void addClass(final JavaClass javaClass, final String location) {
+		cm.getClassHierarchy().addClass(javaClass.getClassName(), javaClass.getSuperclassName(),
+				javaClass.getInterfaceNames());
+		cm.registerClassFile(javaClass.getClassName(), location);
+
 		if (!javaClass.isAnnotation() && !javaClass.isEnum()) {
 			allProjectClassFiles.add(javaClass);
 		}
 	}
+
+	/**
+	 * Calculates all metrics for the given class in the second pass of the
+	 * streaming mode, with the same conditions as
+	 * {@link #addClass(JavaClass, String)}. The class was registered by the first
+	 * pass already.
+	 * 
+	 * @param javaClass
+	 */
+	private void analyseClass(final JavaClass javaClass) {
+		if (!javaClass.isAnnotation() && !javaClass.isEnum()) {
+			cm.registerByteCodeCoupling(streamingEngine, javaClass);
+		}
+	}
+
+	/**
+	 * Simply adding {@link ClassHeader} with the same conditions as
+	 * {@link #addClass(JavaClass, String)}.
+	 * 
+	 * @param header
+	 * @param location of the class file
+	 */
+	private void addClassHeader(final ClassHeader header, final String location) {
+		cm.getClassHierarchy().addClass(header.getClassName(), header.getSuperClassName(),
+				header.getInterfaceNames());
+		cm.registerClassFile(header.getClassName(), location);
+
+		if (!header.isAnnotation() && !header.isEnum()) {
+			allProjectClassHeaders.add(header);
+		}
+	}
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.bytecode.visitor;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads the class files of a jar archive. The archive is opened exactly once
+ * and its entries are streamed sequentially, so every class file is handed
+ * over as a byte buffer without seeking inside the archive again.
+ *
+ */
+public class JarReader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Consumer for the class files found in an archive.
+	 */
+	@FunctionalInterface
+	public interface ClassFileConsumer {
+
+		/**
+		 * Accepts a single class file.
+		 *
+		 * @param entryName name of the entry within the archive
+		 * @param bytes     content of the class file
+		 * @throws IOException
+		 */
+		void accept(String entryName, byte[] bytes) throws IOException;
+	}
+
+	/**
+	 * Streams all class files of the given jar into the consumer.
+	 *
+	 * @param pathToJarFile
+	 * @param consumer
+	 * @throws IOException if the archive could not be read.
+	 */
+	public static void readClassFiles(final String pathToJarFile, final ClassFileConsumer consumer)
+			throws IOException {
+
+		try (final ZipInputStream jar = new ZipInputStream(
+				new BufferedInputStream(new FileInputStream(pathToJarFile), BUFFER_SIZE))) {
+
+			ZipEntry entry;
+			while ((entry = jar.getNextEntry()) != null) {
+
+				if (!entry.isDirectory() && entry.getName().endsWith(".class")) {
+					// Reads till the end of the current entry only.
+					consumer.accept(entry.getName(), jar.readAllBytes());
+				}
+			}
+		}
+	}
+}
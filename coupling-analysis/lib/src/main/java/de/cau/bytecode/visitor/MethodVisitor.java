@@ -16,55 +16,76 @@
 
 package de.cau.bytecode.visitor;
 
+import org.apache.bcel.Const;
+import org.apache.bcel.classfile.ClassFormatException;
+import org.apache.bcel.classfile.Code;
+import org.apache.bcel.classfile.ConstantCP;
+import org.apache.bcel.classfile.ConstantNameAndType;
+import org.apache.bcel.classfile.ConstantPool;
 import org.apache.bcel.classfile.Method;
-import org.apache.bcel.generic.ConstantPoolGen;
-import org.apache.bcel.generic.EmptyVisitor;
-import org.apache.bcel.generic.INVOKEDYNAMIC;
-import org.apache.bcel.generic.INVOKEINTERFACE;
-import org.apache.bcel.generic.INVOKESPECIAL;
-import org.apache.bcel.generic.INVOKESTATIC;
-import org.apache.bcel.generic.INVOKEVIRTUAL;
-import org.apache.bcel.generic.Instruction;
-import org.apache.bcel.generic.InstructionHandle;
-import org.apache.bcel.generic.InstructionList;
-import org.apache.bcel.generic.InvokeInstruction;
-import org.apache.bcel.generic.MethodGen;
 
 import de.cau.monitor.metrics.MethodToMethodCoupling;
 import de.cau.monitor.metrics.MethodVisitorRegisterStrategy;
 import de.cau.tools.Tag;
 
 /**
- * Visitor class that extends {@link EmptyVisitor} for visiting all parts of
- * bytecode that are useful for method coupling.
+ * Visitor class for visiting all parts of bytecode that are useful for method
+ * coupling. The code of a method is scanned directly: operands are skipped and
+ * only the constant pool entries of invoke instructions are resolved, so no
+ * object is created per instruction. One visitor is used for all methods of a
+ * class, resolved names are cached by their constant pool index.
  *
  */
-public class MethodVisitor extends EmptyVisitor {
+public class MethodVisitor {
 
-	private final ConstantPoolGen constantPoolGen;
-	private final MethodGen methodGen;
+	private final String className;
+	private final ConstantPool constantPool;
 	private final MethodVisitorRegisterStrategy strategy;
 
-	public MethodVisitor(final Method method, final String className, final ConstantPoolGen constantPoolGen,
+	// Resolved names of invoke instructions by constant pool index.
+	private final String[] classNames;
+	private final String[] methodNames;
+
+	public MethodVisitor(final String className, final ConstantPool constantPool,
 			final MethodVisitorRegisterStrategy strategy) {
 
-		this.constantPoolGen = constantPoolGen;
-		this.methodGen = new MethodGen(method, className, constantPoolGen);
+		this.className = className;
+		this.constantPool = constantPool;
 		this.strategy = strategy;
+		this.classNames = new String[constantPool.getLength()];
+		this.methodNames = new String[constantPool.getLength()];
 	}
 
 	/**
 	 * Visit all instructions of the method.
+	 * 
+	 * @param method of the visited class
 	 */
-	public void visitMethod() {
-		if (!methodGen.isAbstract() && !methodGen.isNative()) {
-			final InstructionList instructions = methodGen.getInstructionList();
-			InstructionHandle handle = instructions.getStart();
-			while (handle != null) {
-				final Instruction i = handle.getInstruction();
-				i.accept(this);
-				handle = handle.getNext();
+	public void visitMethod(final Method method) {
+
+		final Code code = method.getCode();
+
+		if (method.isAbstract() || method.isNative() || code == null)
+			return;
+
+		final byte[] bytes = code.getCode();
+		int pc = 0;
+
+		while (pc < bytes.length) {
+			final int opcode = bytes[pc] & 0xff;
+
+			switch (opcode) {
+			case Const.INVOKESTATIC:
+			case Const.INVOKESPECIAL:
+			case Const.INVOKEVIRTUAL:
+			case Const.INVOKEDYNAMIC:
+			case Const.INVOKEINTERFACE:
+				visitINVOKEMethodCall(opcode, readUnsignedShort(bytes, pc + 1));
+				break;
+			default:
+				break;
 			}
+			pc += getInstructionLength(bytes, pc, opcode);
 		}
 	}
 
@@ -75,33 +96,25 @@ public class MethodVisitor extends EmptyVisitor {
 	 * @param methodNameTo to which method there is a coupling.
 	 */
 	private void registerCoupling(final String classTo, final String methodNameTo) {
-		this.registerCoupling(methodGen.getClassName(), classTo, methodNameTo);
+		strategy.registerCoupling(className, classTo, methodNameTo);
 	}
 
 	/**
-	 * Register the coupling.
+	 * Catches the invoke instructions by generalization, like static, virtual,
+	 * dynamic, special and interface calls.
 	 * 
-	 * @param classFrom from which the coupling is counted.
-	 * @param classTo   to which class there is a coupling.
-	 * @param methodTo  to which method there is a coupling.
+	 * @param opcode of the invoke instruction
+	 * @param index  constant pool index of the invoked method
 	 */
-	private void registerCoupling(final String classFrom, final String classTo, final String methodTo) {
-		strategy.registerCoupling(classFrom, classTo, methodTo);
-	}
+	private void visitINVOKEMethodCall(final int opcode, final int index) {
 
-	/**
-	 * Catches the invoke instructions by generalization.
-	 * 
-	 * @param invokeInstruction like static, virtual, dynamic, special...
-	 */
-	public void visitINVOKEMethodCall(final InvokeInstruction invokeInstruction) {
+		final String methodName = getMethodName(index);
 
-		String classTo = invokeInstruction.getClassName(constantPoolGen);
-		final String methodName = invokeInstruction.getMethodName(constantPoolGen);
+		// Do not care of initialization.
+		if (opcode == Const.INVOKESPECIAL && methodName.equals("<init>"))
+			return;
 
-		if (!classTo.contains(".") && Character.isLowerCase(classTo.charAt(0))) {
-			classTo = Tag.LAMBDA.toString();
-		}
+		final String classTo = getClassName(opcode, index);
 
 		// Make sure that we do not count internal parts, e.g. control structures.
 		if (!MethodToMethodCoupling.isIgnored(classTo, methodName)) {
@@ -110,46 +123,92 @@ public class MethodVisitor extends EmptyVisitor {
 	}
 
 	/**
-	 * Catches the static calls.
+	 * Gets the name of the invoked method.
+	 * 
+	 * @param index constant pool index of the invoked method
+	 * @return the method name
 	 */
-	@Override
-	public void visitINVOKESTATIC(final INVOKESTATIC obj) {
-		visitINVOKEMethodCall(obj);
+	private String getMethodName(final int index) {
+
+		if (methodNames[index] == null) {
+			final ConstantCP cmr = (ConstantCP) constantPool.getConstant(index);
+			final ConstantNameAndType cnat = (ConstantNameAndType) constantPool
+					.getConstant(cmr.getNameAndTypeIndex());
+			methodNames[index] = cnat.getName(constantPool);
+		}
+		return methodNames[index];
 	}
 
 	/**
-	 * Catches the special calls e.g. super calls.
+	 * Gets the name of the class of the invoked method. Dynamic calls (lambdas)
+	 * are mapped to {@link Tag#LAMBDA}.
+	 * 
+	 * @param opcode of the invoke instruction
+	 * @param index  constant pool index of the invoked method
+	 * @return the class name
 	 */
-	@Override
-	public void visitINVOKESPECIAL(final INVOKESPECIAL obj) {
+	private String getClassName(final int opcode, final int index) {
+
+		if (classNames[index] == null) {
+			String classTo;
+
+			if (opcode == Const.INVOKEDYNAMIC) {
+				// There is no class, the name of the call site is used instead.
+				classTo = getMethodName(index);
+			} else {
+				final ConstantCP cmr = (ConstantCP) constantPool.getConstant(index);
+				classTo = constantPool.getConstantString(cmr.getClassIndex(), Const.CONSTANT_Class)
+						.replace('/', '.');
+			}
 
-		// Do not care of initialization.
-		if (!obj.getMethodName(constantPoolGen).equals("<init>")) {
-			visitINVOKEMethodCall(obj);
+			if (!classTo.contains(".") && Character.isLowerCase(classTo.charAt(0))) {
+				classTo = Tag.LAMBDA.toString();
+			}
+			classNames[index] = classTo;
 		}
+		return classNames[index];
 	}
 
 	/**
-	 * Catches the virtual calls.
+	 * Gets the length of the instruction at the given position including its
+	 * operands.
+	 * 
+	 * @param bytes  code of the method
+	 * @param pc     position of the instruction
+	 * @param opcode of the instruction
+	 * @return length in bytes
 	 */
-	@Override
-	public void visitINVOKEVIRTUAL(final INVOKEVIRTUAL obj) {
-		visitINVOKEMethodCall(obj);
+	private static int getInstructionLength(final byte[] bytes, final int pc, final int opcode) {
+
+		// Switch operands are aligned to four bytes relative to the code start.
+		final int padding = 3 - pc % 4;
+
+		switch (opcode) {
+		case Const.TABLESWITCH: {
+			final int low = readInt(bytes, pc + padding + 5);
+			final int high = readInt(bytes, pc + padding + 9);
+			return 1 + padding + 12 + (high - low + 1) * 4;
+		}
+		case Const.LOOKUPSWITCH: {
+			final int pairs = readInt(bytes, pc + padding + 5);
+			return 1 + padding + 8 + pairs * 8;
+		}
+		case Const.WIDE:
+			return (bytes[pc + 1] & 0xff) == Const.IINC ? 6 : 4;
+		default:
+			final short operands = Const.getNoOfOperands(opcode);
+			if (operands < 0)
+				throw new ClassFormatException("Invalid opcode " + opcode + " at position " + pc);
+			return 1 + operands;
+		}
 	}
 
-	/**
-	 * Catches the dynamic calls.
-	 */
-	@Override
-	public void visitINVOKEDYNAMIC(final INVOKEDYNAMIC obj) {
-		visitINVOKEMethodCall(obj);
+	private static int readUnsignedShort(final byte[] bytes, final int pos) {
+		return (bytes[pos] & 0xff) << 8 | bytes[pos + 1] & 0xff;
 	}
 
-	/**
-	 * Catches the interface calls.
-	 */
-	@Override
-	public void visitINVOKEINTERFACE(final INVOKEINTERFACE obj) {
-		visitINVOKEMethodCall(obj);
+	private static int readInt(final byte[] bytes, final int pos) {
+		return (bytes[pos] & 0xff) << 24 | (bytes[pos + 1] & 0xff) << 16 | (bytes[pos + 2] & 0xff) << 8
+				| bytes[pos + 3] & 0xff;
 	}
 }
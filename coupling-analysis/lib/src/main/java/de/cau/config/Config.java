@@ -21,6 +21,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import de.cau.monitor.metrics.CouplingTag;
+import de.cau.tools.LogLevel;
 
 /**
  * This annotation is useful for development and testing purpose by simply
@@ -50,4 +51,24 @@ public @interface Config {
 
 	public String externalLibPath() default Configuration.UNDIFIND;
 
+	public int workerThreads() default 1;
+
+	public boolean isStreamingByteCode() default false;
+
+	public boolean isStreamingSourceCode() default false;
+
+	public int resolutionStackSizeMB() default 512;
+
+	public int resolutionTimeoutMillis() default 10_000;
+
+	public LogLevel logLevel() default LogLevel.DEBUG;
+
+	public int errorSampleSize() default 1000;
+
+	public int sdiMaxCycles() default 100_000;
+
+	public int sdiTimeoutMillis() default 10_000;
+
+	public CouplingTag sdiCoupling() default CouplingTag.PACKAGE;
+
 }
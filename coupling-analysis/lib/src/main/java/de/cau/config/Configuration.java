@@ -34,6 +34,8 @@ import java.util.Set;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
 
+import de.cau.monitor.ProjectFilter;
+import de.cau.monitor.SymbolTable;
 import de.cau.monitor.metrics.ACoupling;
 import de.cau.monitor.metrics.CouplingTag;
 import de.cau.monitor.metrics.FieldCoupling;
@@ -42,6 +44,7 @@ import de.cau.monitor.metrics.InheritanceCoupling;
 import de.cau.monitor.metrics.MethodToMethodCoupling;
 import de.cau.monitor.metrics.PackageCoupling;
 import de.cau.monitor.metrics.StructalDebtIndex;
+import de.cau.tools.LogLevel;
 import de.cau.tools.Logger;
 import de.cau.tools.MetaInfo;
 
@@ -61,6 +64,16 @@ public class Configuration {
 	private static MetaInfo sourceCodeInfo;
 	private static MetaInfo byteCodeInfo;
 	public static boolean countSelfConnection;
+	public static int workerThreads;
+	public static boolean isStreamingByteCode;
+	public static boolean isStreamingSourceCode;
+	public static int resolutionStackSizeMB;
+	public static int resolutionTimeoutMillis;
+	public static LogLevel logLevel = LogLevel.DEBUG;
+	public static int errorSampleSize = 1000;
+	public static int sdiMaxCycles = 100_000;
+	public static int sdiTimeoutMillis = 10_000;
+	public static CouplingTag sdiCoupling = CouplingTag.PACKAGE;
 	public static final String UNDIFIND = "UNDIFINED";
 	public static boolean isInit = false;
 
@@ -100,7 +113,19 @@ public class Configuration {
 		sourceCodeMetrics = new ArrayList<>();
 		byteCodeMetrics = new ArrayList<>();
 		whiteList = new HashSet<>();
+		SymbolTable.getInstance().clear();
+		ProjectFilter.getInstance().invalidate();
 		countSelfConnection = false;
+		workerThreads = 1;
+		isStreamingByteCode = false;
+		isStreamingSourceCode = false;
+		resolutionStackSizeMB = 512;
+		resolutionTimeoutMillis = 10_000;
+		logLevel = LogLevel.DEBUG;
+		errorSampleSize = 1000;
+		sdiMaxCycles = 100_000;
+		sdiTimeoutMillis = 10_000;
+		sdiCoupling = CouplingTag.PACKAGE;
 //		readFrom = ReadFrom.FROM_ANNOTATION;
 	}
 
@@ -168,6 +193,9 @@ public class Configuration {
 			aCoupling.clearCouplings();
 		}
 
+		// Interned names are only referred by the couplings removed above.
+		SymbolTable.getInstance().clear();
+		ProjectFilter.getInstance().invalidate();
 	}
 
 	/**
@@ -208,6 +236,18 @@ public class Configuration {
 				DirectoryTool.setSourceCodeInputRoot(conf.sourceCodeInputRoot());
 				DirectoryTool.setByteCodeInputRoot(conf.byteCodeInputRoot());
 				countSelfConnection = conf.countSelfConnection();
+				workerThreads = Math.max(1, conf.workerThreads());
+				isStreamingByteCode = conf.isStreamingByteCode();
+				isStreamingSourceCode = conf.isStreamingSourceCode();
+				resolutionStackSizeMB = Math.max(1, conf.resolutionStackSizeMB());
+				resolutionTimeoutMillis = conf.resolutionTimeoutMillis();
+				logLevel = conf.logLevel();
+				errorSampleSize = Math.max(0, conf.errorSampleSize());
+				sdiMaxCycles = Math.max(1, conf.sdiMaxCycles());
+				sdiTimeoutMillis = conf.sdiTimeoutMillis();
+				if (conf.sdiCoupling() == CouplingTag.STRUCTUAL_DEBT_INDEX)
+					throw new IllegalStateException("The SDI can not be calculated from itself!");
+				sdiCoupling = conf.sdiCoupling();
 
 				for (final CouplingTag sMetric : conf.sourceCodeMetrics()) {
 
@@ -248,7 +288,9 @@ public class Configuration {
 	 * @param candidate package name
 	 */
 	public static void addToWhiteList(final String candidate) {
-		whiteList.add(candidate);
+		if (whiteList.add(candidate)) {
+			ProjectFilter.getInstance().invalidate();
+		}
 	}
 
 	/**
@@ -257,7 +299,9 @@ public class Configuration {
 	 * @param candidates collection of package name
 	 */
 	public static void addAllToWhiteList(final Collection<String> candidates) {
-		whiteList.addAll(candidates);
+		if (whiteList.addAll(candidates)) {
+			ProjectFilter.getInstance().invalidate();
+		}
 	}
 
 	/**
@@ -400,7 +444,7 @@ public class Configuration {
 	 * @param couplingTag
 	 * @return The specific metric for the given name tag.
 	 */
-	private static ACoupling nameTagToCouplingMetric(final CouplingTag couplingTag) {
+	public static ACoupling nameTagToCouplingMetric(final CouplingTag couplingTag) {
 
 		switch (couplingTag) {
 		case METHOD_TO_METHOD:
@@ -440,6 +484,7 @@ public class Configuration {
 
 	public static void clearWhiteList() {
 		whiteList.clear();
+		ProjectFilter.getInstance().invalidate();
 	}
 
 	/**
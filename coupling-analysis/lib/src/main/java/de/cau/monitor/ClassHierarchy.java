@@ -0,0 +1,220 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the class hierarchy of all analysed classes. It is filled with the
+ * super class and interface names found in the class files, so no lookup ever
+ * has to go through the class path. Super types and sub types are found in
+ * constant time, the transitive ancestors are calculated once per class.
+ * Adding a class only forgets the ancestors of the class and its known sub
+ * types.
+ *
+ */
+public class ClassHierarchy {
+
+	private static final String[] NO_INTERFACES = {};
+
+	private final Map<String, String> superClasses;
+	private final Map<String, String[]> interfaces;
+	private final Map<String, Set<String>> subTypes;
+	private final Map<String, Set<String>> ancestors;
+
+	/**
+	 * Constructor
+	 */
+	public ClassHierarchy() {
+		this.superClasses = new HashMap<>();
+		this.interfaces = new HashMap<>();
+		this.subTypes = new HashMap<>();
+		this.ancestors = new HashMap<>();
+	}
+
+	/**
+	 * Add a class with its direct super types. Adding the same class again
+	 * replaces its super types.
+	 *
+	 * @param className      fully-qualified class name
+	 * @param superClassName fully-qualified name of the super class
+	 * @param interfaceNames fully-qualified names of the implemented interfaces
+	 */
+	public synchronized void addClass(final String className, final String superClassName,
+			final String[] interfaceNames) {
+
+		removeSubType(className);
+		forgetAncestors(className);
+		superClasses.put(className, superClassName);
+		interfaces.put(className, interfaceNames.clone());
+
+		subTypes.computeIfAbsent(superClassName, k -> new HashSet<>()).add(className);
+		for (final String iface : interfaceNames) {
+			subTypes.computeIfAbsent(iface, k -> new HashSet<>()).add(className);
+		}
+	}
+
+	/**
+	 * Forgets the calculated ancestors of the given class and all its transitive
+	 * sub types, because they may change with the class.
+	 *
+	 * @param className
+	 */
+	private void forgetAncestors(final String className) {
+
+		// Nothing is calculated while the classes are added.
+		if (ancestors.isEmpty())
+			return;
+
+		final Set<String> visited = new HashSet<>();
+		final Deque<String> work = new ArrayDeque<>();
+		work.add(className);
+
+		while (!work.isEmpty()) {
+			final String type = work.poll();
+
+			if (visited.add(type)) {
+				ancestors.remove(type);
+				work.addAll(subTypes.getOrDefault(type, Collections.emptySet()));
+			}
+		}
+	}
+
+	/**
+	 * Removes the given class from the sub types of its current super types.
+	 *
+	 * @param className
+	 */
+	private void removeSubType(final String className) {
+
+		final String superClassName = superClasses.get(className);
+		if (superClassName == null)
+			return;
+
+		subTypes.get(superClassName).remove(className);
+		for (final String iface : interfaces.get(className)) {
+			subTypes.get(iface).remove(className);
+		}
+	}
+
+	/**
+	 * Check if the given class is part of the index.
+	 *
+	 * @param className
+	 * @return {@code true} if the class was added, otherwise {@code false}
+	 */
+	public synchronized boolean contains(final String className) {
+		return superClasses.containsKey(className);
+	}
+
+	/**
+	 * Get the direct super class.
+	 *
+	 * @param className
+	 * @return fully-qualified name of the super class or {@code null} if the class
+	 *         is unknown.
+	 */
+	public synchronized String getSuperClassName(final String className) {
+		return superClasses.get(className);
+	}
+
+	/**
+	 * Get the directly implemented interfaces.
+	 *
+	 * @param className
+	 * @return fully-qualified interface names, empty if the class is unknown.
+	 */
+	public synchronized String[] getInterfaceNames(final String className) {
+		final String[] names = interfaces.get(className);
+		return names == null ? NO_INTERFACES : names.clone();
+	}
+
+	/**
+	 * Get all known classes, that directly extend or implement the given type.
+	 *
+	 * @param typeName
+	 * @return fully-qualified names of the direct sub types.
+	 */
+	public synchronized Set<String> getSubTypes(final String typeName) {
+		final Set<String> names = subTypes.get(typeName);
+		return names == null ? Collections.emptySet() : Set.copyOf(names);
+	}
+
+	/**
+	 * Get all transitive super classes and interfaces. Types that are not part of
+	 * the index end the search, but are contained in the result.
+	 *
+	 * @param className
+	 * @return fully-qualified names of all ancestors, nearest first.
+	 */
+	public synchronized Set<String> getAncestors(final String className) {
+
+		final Set<String> cached = ancestors.get(className);
+		if (cached != null)
+			return cached;
+
+		final Set<String> result = new LinkedHashSet<>();
+		final Deque<String> work = new ArrayDeque<>();
+		addDirectSuperTypes(className, work);
+
+		while (!work.isEmpty()) {
+			final String type = work.poll();
+
+			// Cyclic hierarchies do not compile, but class files are not trusted.
+			if (!type.equals(className) && result.add(type)) {
+				addDirectSuperTypes(type, work);
+			}
+		}
+
+		final Set<String> unmodifiable = Collections.unmodifiableSet(result);
+		ancestors.put(className, unmodifiable);
+		return unmodifiable;
+	}
+
+	/**
+	 * Add the direct super types of the given class to the work list.
+	 *
+	 * @param className
+	 * @param work
+	 */
+	private void addDirectSuperTypes(final String className, final Deque<String> work) {
+
+		final String superClassName = superClasses.get(className);
+		if (superClassName == null)
+			return;
+
+		work.add(superClassName);
+		Collections.addAll(work, interfaces.get(className));
+	}
+
+	/**
+	 * Removes all classes.
+	 */
+	public synchronized void clear() {
+		superClasses.clear();
+		interfaces.clear();
+		subTypes.clear();
+		ancestors.clear();
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects couplings from any number of threads. Every thread counts into its
+ * own {@link CouplingStore}, so counting needs neither a lock nor a shared
+ * counter. The buffers are merged into the result when it is read. Counts are
+ * summed up, so the result does not depend on which thread counted what.
+ * <p>
+ * Merging must happen after the calculating threads finished, e.g. after
+ * joining them. Merged buffers are dropped, a thread that counts again gets a
+ * new one, so threads that are gone do not keep their buffers.
+ *
+ */
+public class CouplingAccumulator {
+
+	private final List<Buffer> buffers;
+	private final ThreadLocal<Buffer> localBuffer;
+	private volatile int generation;
+
+	/**
+	 * Buffer of a thread, it is valid until the buffers of its generation are
+	 * merged or removed.
+	 */
+	private static class Buffer {
+
+		private final CouplingStore store;
+		private final int generation;
+
+		private Buffer(final int generation) {
+			this.store = new CouplingStore();
+			this.generation = generation;
+		}
+	}
+
+	/**
+	 * Constructor
+	 */
+	public CouplingAccumulator() {
+		this.buffers = new ArrayList<>();
+		this.localBuffer = new ThreadLocal<>();
+	}
+
+	private synchronized Buffer registerBuffer() {
+		final Buffer buffer = new Buffer(generation);
+		buffers.add(buffer);
+		localBuffer.set(buffer);
+		return buffer;
+	}
+
+	/**
+	 * Counts the coupling in the buffer of the current thread.
+	 *
+	 * @param from symbol id
+	 * @param to   symbol id
+	 */
+	public void add(final int from, final int to) {
+
+		Buffer buffer = localBuffer.get();
+		if (buffer == null || buffer.generation != generation) {
+			buffer = registerBuffer();
+		}
+		buffer.store.add(from, to, 1);
+	}
+
+	/**
+	 * Adds the counts of all buffers to the given store and drops the buffers.
+	 *
+	 * @param result
+	 * @return {@code true} if any coupling was merged, otherwise {@code false}
+	 */
+	public synchronized boolean drainTo(final CouplingStore result) {
+
+		boolean isMerged = false;
+		for (final Buffer buffer : buffers) {
+			if (buffer.store.size() > 0) {
+				buffer.store.forEach(result::add);
+				isMerged = true;
+			}
+		}
+		clear();
+		return isMerged;
+	}
+
+	/**
+	 * All buffered couplings will be removed.
+	 */
+	public synchronized void clear() {
+
+		// A thread might still refer its buffer until it counts again.
+		for (final Buffer buffer : buffers) {
+			buffer.store.clear();
+		}
+		buffers.clear();
+		generation++;
+	}
+
+	/**
+	 * Get the number of buffers, that were not merged yet.
+	 *
+	 * @return number of buffers
+	 */
+	synchronized int getBufferCount() {
+		return buffers.size();
+	}
+}
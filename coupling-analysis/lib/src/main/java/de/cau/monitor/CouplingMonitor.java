@@ -16,32 +16,31 @@
 
 package de.cau.monitor;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.bcel.classfile.JavaClass;
 
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.PackageDeclaration;
-import com.github.javaparser.ast.body.AnnotationDeclaration;
-import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.EnumDeclaration;
 
+import de.cau.bytecode.visitor.ByteCodeMetricEngine;
+import de.cau.bytecode.visitor.ClassHeader;
 import de.cau.config.Configuration;
 import de.cau.monitor.metrics.ACoupling;
 import de.cau.monitor.metrics.CouplingTag;
-import de.cau.monitor.metrics.PackageCoupling;
+import de.cau.monitor.metrics.ImportCoupling;
 import de.cau.monitor.metrics.StructalDebtIndex;
-import de.cau.tools.FunctionHelper;
+import de.cau.sourcecode.SourceClassContext;
+import de.cau.sourcecode.SourceMetricEngine;
+import de.cau.sourcecode.SymbolResolutionCache;
 import de.cau.tools.Logger;
 import de.cau.tools.MetaInfo;
 import de.cau.tools.Tag;
@@ -55,7 +54,15 @@ import de.cau.tools.Tag;
  */
 public class CouplingMonitor {
 
+	/**
+	 * Separates the path of a jar and the name of an entry in a class file
+	 * location.
+	 */
+	public static final String JAR_SEPARATOR = "!/";
+
 	private final Set<String> classes;
+	private final ClassHierarchy hierarchy;
+	private final Map<String, String> classFiles;
 	private final Logger logger;
 	private static CouplingMonitor couplingMonitorInstance;
 
@@ -64,6 +71,8 @@ public class CouplingMonitor {
 	 */
 	private CouplingMonitor() {
 		this.classes = new HashSet<>();
+		this.hierarchy = new ClassHierarchy();
+		this.classFiles = new ConcurrentHashMap<>();
 		this.logger = Logger.getInstance();
 	}
 
@@ -81,6 +90,40 @@ public class CouplingMonitor {
 
 	public void clearRegisteredClasses() {
 		classes.clear();
+		ProjectFilter.getInstance().invalidate();
+	}
+
+	/**
+	 * Get the class hierarchy of all classes read by the bytecode analysis.
+	 * 
+	 * @return class hierarchy
+	 */
+	public ClassHierarchy getClassHierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * Register the location of a class file read by the bytecode analysis.
+	 * 
+	 * @param fullClassName
+	 * @param location      path of the class file or path of the jar and name of
+	 *                      the entry, separated by {@link #JAR_SEPARATOR}.
+	 */
+	public void registerClassFile(final String fullClassName, final String location) {
+		classFiles.put(fullClassName, location);
+	}
+
+	/**
+	 * Get the locations of all class files read by the bytecode analysis.
+	 * 
+	 * @return class names mapped to the location of their class file.
+	 */
+	public Map<String, String> getClassFiles() {
+		return Collections.unmodifiableMap(classFiles);
+	}
+
+	public void clearClassFiles() {
+		classFiles.clear();
 	}
 
 	/**
@@ -91,8 +134,8 @@ public class CouplingMonitor {
 	 */
 	public void registerClass(final String fullClassName, final Predicate<? super String> predicate) {
 
-		if (!classes.contains(fullClassName)) {
-			classes.add(fullClassName);
+		if (classes.add(fullClassName)) {
+			ProjectFilter.getInstance().invalidate();
 		}
 	}
 
@@ -103,8 +146,8 @@ public class CouplingMonitor {
 	 */
 	public void registerClass(final String fullClassName) {
 
-		if (!classes.contains(fullClassName)) {
-			classes.add(fullClassName);
+		if (classes.add(fullClassName)) {
+			ProjectFilter.getInstance().invalidate();
 		}
 	}
 
@@ -116,7 +159,9 @@ public class CouplingMonitor {
 	 */
 	public void registerAllClasses(final Collection<? extends String> fullClassName,
 			final Predicate<? super String> predicate) {
-		classes.addAll(fullClassName);
+		if (classes.addAll(fullClassName)) {
+			ProjectFilter.getInstance().invalidate();
+		}
 	}
 
 	/**
@@ -125,7 +170,9 @@ public class CouplingMonitor {
 	 * @param classNames
 	 */
 	public void registerAllClasses(final Collection<? extends String> classNames) {
-		classes.addAll(classNames);
+		if (classes.addAll(classNames)) {
+			ProjectFilter.getInstance().invalidate();
+		}
 	}
 
 	/**
@@ -152,41 +199,80 @@ public class CouplingMonitor {
 
 	/**
 	 * For the given Collection of javaClasses register for all configured bytecode
-	 * metrics the coupling.
+	 * metrics the coupling. Every class is visited once for all metrics.
 	 * 
 	 * @param javaClassFiles
 	 */
 	public void registerByteCodeCoupling(final Collection<JavaClass> javaClassFiles) {
 
-		final Optional<ACoupling> oPackage = Configuration.findCouplingbyTagB(CouplingTag.PACKAGE);
+		final ByteCodeMetricEngine engine = prepareByteCodeCoupling();
+
+		for (final JavaClass javaClass : javaClassFiles) {
+			registerByteCodeCoupling(engine, javaClass);
+		}
+		engine.finish();
+	}
+
+	/**
+	 * Prepares all configured bytecode metrics and creates the engine, that
+	 * calculates them. Classes can be handed to the engine one by one, after the
+	 * last class {@link ByteCodeMetricEngine#finish()} has to be called.
+	 * 
+	 * @return the engine for all configured bytecode metrics.
+	 */
+	public ByteCodeMetricEngine prepareByteCodeCoupling() {
+
+		final Optional<ACoupling> oCoupling = Configuration.findCouplingbyTagB(Configuration.sdiCoupling);
 		final Optional<ACoupling> oSDI = Configuration.findCouplingbyTagB(CouplingTag.STRUCTUAL_DEBT_INDEX);
 
-		if (oPackage.isPresent() && oSDI.isPresent()) {
-			oPackage.get().setCouplingHook();
-			((StructalDebtIndex) oSDI.get()).setCoupling((PackageCoupling) oPackage.get());
+		if (oCoupling.isPresent() && oSDI.isPresent()) {
+			((StructalDebtIndex) oSDI.get()).setCoupling(oCoupling.get());
 		} else if (oSDI.isPresent()) {
-			final PackageCoupling packACoupling = new PackageCoupling();
-			packACoupling.setCouplingHook();
-			((StructalDebtIndex) oSDI.get()).setCoupling(packACoupling);
-			Configuration.registerByteCodeMetrics(packACoupling);
+			final ACoupling coupling = Configuration.nameTagToCouplingMetric(Configuration.sdiCoupling);
+			((StructalDebtIndex) oSDI.get()).setCoupling(coupling);
+			Configuration.registerByteCodeMetrics(coupling);
 		}
 
 		final List<ACoupling> metrics = Configuration.getBytecodeCodeMetrics();
 		Collections.sort(metrics);
 
-		for (final ACoupling coupl : metrics) {
-			logger.log("Calculate " + coupl.getNameTag() + ":");
-			for (final JavaClass javaClass : javaClassFiles) {
+		logger.log("Calculate " + metrics + ":");
+		return new ByteCodeMetricEngine(metrics);
+	}
 
-				if (!javaClass.isInterface()) {
-					logger.log("...visiting..." + javaClass.getClassName());
-					coupl.calculateCoupling(javaClass);
+	/**
+	 * Register the coupling of a single javaClass for all metrics of the given
+	 * engine. Interfaces are skipped.
+	 * 
+	 * @param engine    created by {@link #prepareByteCodeCoupling()}
+	 * @param javaClass
+	 */
+	public void registerByteCodeCoupling(final ByteCodeMetricEngine engine, final JavaClass javaClass) {
 
-					if (coupl.getNameTag() == CouplingTag.STRUCTUAL_DEBT_INDEX) {
-						break;
-					}
-				}
+		if (!javaClass.isInterface()) {
+			logger.log("...visiting..." + javaClass.getClassName());
+			engine.visitClass(javaClass);
+		}
+	}
+
+	/**
+	 * For the given Collection of class headers register the import coupling. This
+	 * is used if imports are the only configured bytecode metric.
+	 * 
+	 * @param classHeaders
+	 */
+	public void registerByteCodeImportCoupling(final Collection<ClassHeader> classHeaders) {
+
+		final ImportCoupling importCoupling = (ImportCoupling) Configuration.findCouplingbyTagB(CouplingTag.IMPORT)
+				.orElseThrow(() -> new IllegalStateException("Import coupling is not configured!"));
+
+		logger.log("Calculate " + importCoupling.getNameTag() + ":");
 
+		for (final ClassHeader header : classHeaders) {
+
+			if (!header.isInterface()) {
+				logger.log("...visiting..." + header.getClassName());
+				importCoupling.calculateCoupling(header);
 			}
 		}
 	}
@@ -205,92 +291,70 @@ public class CouplingMonitor {
 				.map(Optional::get)
 				.collect(Collectors.toList());
 
+		final SourceMetricEngine engine = prepareSourceCodeCoupling();
+
+		for (final CompilationUnit cu : cus) {
+			registerSourceCodeCoupling(engine, cu);
+		}
+		engine.finish();
 		logger.logSeparation();
+	}
+
+	/**
+	 * Prepares all configured sourcecode metrics and creates the engine, that
+	 * calculates them. Units can be handed to the engine one by one, after the
+	 * last unit {@link SourceMetricEngine#finish()} has to be called.
+	 * 
+	 * @return the engine for all configured sourcecode metrics.
+	 */
+	public SourceMetricEngine prepareSourceCodeCoupling() {
+
+		logger.logSeparation();
+
+		// Failed calls of an earlier run may be resolvable with the current setup.
+		SymbolResolutionCache.getInstance().reset();
 
-		final Optional<ACoupling> oPackage = Configuration.findCouplingbyTagS(CouplingTag.PACKAGE);
+		final Optional<ACoupling> oCoupling = Configuration.findCouplingbyTagS(Configuration.sdiCoupling);
 		final Optional<ACoupling> oSDI = Configuration.findCouplingbyTagS(CouplingTag.STRUCTUAL_DEBT_INDEX);
 
-		// if we want to calculate the SDI, we also need the package coupling for this
-		// job.
-		if (oPackage.isPresent() && oSDI.isPresent()) {
-			oPackage.get().setCouplingHook();
-			((StructalDebtIndex) oSDI.get()).setCoupling((PackageCoupling) oPackage.get());
+		// if we want to calculate the SDI, we also need its coupling for this job.
+		if (oCoupling.isPresent() && oSDI.isPresent()) {
+			((StructalDebtIndex) oSDI.get()).setCoupling(oCoupling.get());
 		} else if (oSDI.isPresent()) {
-			final PackageCoupling packACoupling = new PackageCoupling();
-			packACoupling.setCouplingHook();
-			((StructalDebtIndex) oSDI.get()).setCoupling(packACoupling);
-			Configuration.registerSourceCodeMetrics(packACoupling);
+			final ACoupling coupling = Configuration.nameTagToCouplingMetric(Configuration.sdiCoupling);
+			((StructalDebtIndex) oSDI.get()).setCoupling(coupling);
+			Configuration.registerSourceCodeMetrics(coupling);
 		}
 
 		// Order is important.
 		final List<ACoupling> metrics = Configuration.getSourceCodeMetrics();
 		Collections.sort(metrics);
 
-		for (final ACoupling coupl : metrics) {
-			logger.log("Calculate " + coupl.getNameTag() + ":");
-
-			for (final CompilationUnit cu : cus) {
-
-				final List<ClassOrInterfaceDeclaration> coi = cu.findAll(ClassOrInterfaceDeclaration.class);
-
-				final List<String> fullClassNames = getFullClassNameByCompilationUnit(cu);
-				for (final Entry<ClassOrInterfaceDeclaration, String> entry : FunctionHelper.zip(coi,
-						fullClassNames)) {
-
-					if (!entry.getKey().isInterface()) {
-						logger.log("...visiting..." + entry.getValue());
-						coupl.calculateCoupling(entry.getKey(), entry.getValue());
-
-						if (coupl.getNameTag() == CouplingTag.STRUCTUAL_DEBT_INDEX) {
-							break;
-						}
-					}
-
-				}
-			}
-			logger.logSeparation();
-		}
+		logger.log("Calculate " + metrics + ":");
+		return new SourceMetricEngine(metrics);
 	}
 
 	/**
-	 * Get all full class names or qualified names (packagename + classname)
+	 * Register the coupling of all classes of a single unit for all metrics of
+	 * the given engine. Every unit is walked once, every class is handed to all
+	 * metrics. Interfaces are skipped.
 	 * 
+	 * @param engine created by {@link #prepareSourceCodeCoupling()}
 	 * @param cu
-	 * @return list of all full calss names
 	 */
-	private List<String> getFullClassNameByCompilationUnit(final CompilationUnit cu) {
-
-		final Optional<PackageDeclaration> oPack = cu.getPackageDeclaration();
-		final String pack = oPack.isPresent() ? oPack.get().getNameAsString() + "." : "";
-		final List<ClassOrInterfaceDeclaration> coiList = cu.findAll(ClassOrInterfaceDeclaration.class);
-		final List<String> fullClassNames = new ArrayList<>();
-
-		for (final ClassOrInterfaceDeclaration coi : coiList) {
-
-			// If it is a nested class separate with a $ like the byte code does.
-			final String fullClassName = fullClassNames.isEmpty() ? pack + coi.getNameAsString()
-					: fullClassNames.get(0) + "$" + coi.getNameAsString();
-			fullClassNames.add(fullClassName);
-		}
+	public void registerSourceCodeCoupling(final SourceMetricEngine engine, final CompilationUnit cu) {
 
-		// ...Not a class or interface declaration...
+		for (final SourceClassContext context : engine.collectClasses(cu)) {
 
-		final Optional<AnnotationDeclaration> oad = cu.findFirst(AnnotationDeclaration.class);
-
-		if (oad.isPresent()) {
-			final String fullClassName = pack + oad.get().getNameAsString();
-			fullClassNames.add(fullClassName);
+			if (!context.isInterface()) {
+				logger.log("...visiting..." + context.getClassName());
+				engine.visitClass(context);
+			}
 		}
 
-		final Optional<EnumDeclaration> oed = cu.findFirst(EnumDeclaration.class);
-		if (oed.isPresent()) {
-			// If it is a nested class separate with a $ like the byte code does.
-			final String fullClassName = fullClassNames.isEmpty() ? pack + oed.get().getNameAsString()
-					: fullClassNames.get(0) + "$" + oed.get().getNameAsString();
-
-			fullClassNames.add(fullClassName);
-		}
-		return fullClassNames;
+		// Symbol resolutions are cached by the nodes of the unit, they are not needed
+		// anymore.
+		SymbolResolutionCache.getInstance().clear();
 	}
 
 	/**
@@ -0,0 +1,177 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import java.util.Arrays;
+
+/**
+ * Counts the couplings between symbols of the {@link SymbolTable}. Both ids of
+ * a coupling are packed into one long key, keys and counts are kept in
+ * primitive arrays with open addressing, so counting a coupling does neither
+ * box nor allocate.
+ *
+ */
+public class CouplingStore {
+
+	private static final long FREE = -1L;
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] keys;
+	private int[] counts;
+	private int size;
+	private int modificationCount;
+
+	/**
+	 * Consumes a counted coupling.
+	 */
+	@FunctionalInterface
+	public interface CouplingConsumer {
+		void accept(int from, int to, int count);
+	}
+
+	/**
+	 * Constructor
+	 */
+	public CouplingStore() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Adds the given count to the coupling between the given symbols.
+	 *
+	 * @param from  symbol id
+	 * @param to    symbol id
+	 * @param count to add
+	 */
+	public void add(final int from, final int to, final int count) {
+
+		final long key = pack(from, to);
+		final int slot = find(key);
+		modificationCount++;
+
+		if (keys[slot] == key) {
+			counts[slot] += count;
+			return;
+		}
+
+		keys[slot] = key;
+		counts[slot] = count;
+
+		if (++size * 3 > keys.length * 2) {
+			rehash(keys.length * 2);
+		}
+	}
+
+	/**
+	 * Get how often the coupling between the given symbols was counted.
+	 *
+	 * @param from symbol id
+	 * @param to   symbol id
+	 * @return the count, {@literal 0} if there is none.
+	 */
+	public int get(final int from, final int to) {
+		final long key = pack(from, to);
+		final int slot = find(key);
+		return keys[slot] == key ? counts[slot] : 0;
+	}
+
+	/**
+	 * Get the number of different couplings.
+	 *
+	 * @return number of couplings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of changes, it changes whenever a coupling is counted or
+	 * removed.
+	 *
+	 * @return modification count
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Hands every coupling with its count to the given consumer.
+	 *
+	 * @param consumer
+	 */
+	public void forEach(final CouplingConsumer consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != FREE) {
+				consumer.accept((int) (keys[i] >>> 32), (int) keys[i], counts[i]);
+			}
+		}
+	}
+
+	/**
+	 * All couplings counted will be removed.
+	 */
+	public void clear() {
+		allocate(INITIAL_CAPACITY);
+		size = 0;
+		modificationCount++;
+	}
+
+	private void allocate(final int capacity) {
+		keys = new long[capacity];
+		counts = new int[capacity];
+		Arrays.fill(keys, FREE);
+	}
+
+	private void rehash(final int capacity) {
+
+		final long[] oldKeys = keys;
+		final int[] oldCounts = counts;
+		allocate(capacity);
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				final int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+
+	/**
+	 * Linear probing for the given key.
+	 *
+	 * @param key
+	 * @return slot of the key or the free slot where it belongs.
+	 */
+	private int find(final long key) {
+
+		final int mask = keys.length - 1;
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+
+		while (keys[slot] != FREE && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Symbol ids are not negative, so a packed key is never {@link #FREE}.
+	 */
+	private static long pack(final int from, final int to) {
+		return ((long) from << 32) | (to & 0xFFFFFFFFL);
+	}
+}
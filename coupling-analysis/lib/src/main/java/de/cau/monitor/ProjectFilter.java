@@ -0,0 +1,146 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import java.util.Arrays;
+
+import de.cau.config.Configuration;
+import de.cau.monitor.metrics.ACoupling;
+
+/**
+ * Decides whether a symbol of the {@link SymbolTable} is part of the project,
+ * by the white list and the registered classes. The verdict of every symbol is
+ * calculated once and kept by its id, so checking a known symbol is a single
+ * array lookup. All verdicts are dropped when the filter is used after the
+ * white list or the registered classes changed.
+ *
+ */
+public class ProjectFilter {
+
+	private static final byte UNKNOWN = 0;
+	private static final byte PASSED = 1;
+	private static final byte FILTERED = 2;
+
+	private static ProjectFilter filterInstance;
+
+	private final SymbolTable symbols;
+	private volatile byte[] verdicts;
+	private volatile int verdictsVersion;
+	private volatile int version;
+
+	/**
+	 * Constructor
+	 */
+	private ProjectFilter() {
+		this.symbols = SymbolTable.getInstance();
+		this.verdicts = new byte[symbols.size()];
+	}
+
+	/**
+	 * Get Singleton instance.
+	 *
+	 * @return project filter
+	 */
+	public static synchronized ProjectFilter getInstance() {
+		if (filterInstance == null) {
+			filterInstance = new ProjectFilter();
+		}
+		return filterInstance;
+	}
+
+	/**
+	 * Check whether the given class or package passes the filter.
+	 *
+	 * @param id symbol id of a class or package name
+	 * @return {@code true} if passed the filter, otherwise {@code false}
+	 */
+	public boolean isProjectPart(final int id) {
+
+		byte[] current = version == verdictsVersion ? verdicts : rebuild();
+
+		if (id < current.length) {
+			final byte verdict = current[id];
+			if (verdict != UNKNOWN)
+				return verdict == PASSED;
+		} else {
+			current = grow(id);
+		}
+
+		// A verdict calculated while the filter is dropped lands in the old array.
+		final boolean isPassed = matches(symbols.getName(id));
+		current[id] = isPassed ? PASSED : FILTERED;
+		return isPassed;
+	}
+
+	/**
+	 * Check whether the given class or package passes the filter, without adding
+	 * it to the {@link SymbolTable}.
+	 *
+	 * @param fullClassNameOrPackage
+	 * @return {@code true} if passed the filter, otherwise {@code false}
+	 */
+	public boolean isProjectPart(final String fullClassNameOrPackage) {
+		final int id = symbols.getId(fullClassNameOrPackage);
+		return id == -1 ? matches(fullClassNameOrPackage) : isProjectPart(id);
+	}
+
+	/**
+	 * Drops all verdicts, this needs to be called after the white list or the
+	 * registered classes changed. The verdicts are dropped when the filter is
+	 * used next, so changing many classes at once is cheap.
+	 */
+	public synchronized void invalidate() {
+		version++;
+	}
+
+	private synchronized byte[] rebuild() {
+		if (verdictsVersion != version) {
+			verdicts = new byte[symbols.size()];
+			verdictsVersion = version;
+		}
+		return verdicts;
+	}
+
+	private synchronized byte[] grow(final int id) {
+		if (id >= verdicts.length) {
+			verdicts = Arrays.copyOf(verdicts, Math.max(id + 1, verdicts.length * 2));
+		}
+		return verdicts;
+	}
+
+	/**
+	 * Check whether the package or the class name is in the white list or the
+	 * class is registered.
+	 *
+	 * @param fullClassNameOrPackage
+	 * @return {code true} if passed the filter, otherwise {@code false}
+	 */
+	private static boolean matches(final String fullClassNameOrPackage) {
+
+		// Is package we want to count.
+		if (Configuration.isInWhiteList(fullClassNameOrPackage))
+			return true;
+
+		final String packageName = ACoupling.getPackageNameFromString(fullClassNameOrPackage);
+
+		final String className = fullClassNameOrPackage.substring(packageName.length(),
+				fullClassNameOrPackage.length());
+
+		return Configuration.isInWhiteList(packageName)
+				|| CouplingMonitor.getInstance().getRegisteredClasses().contains(className);
+	}
+}
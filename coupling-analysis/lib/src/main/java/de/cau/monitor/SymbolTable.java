@@ -0,0 +1,160 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns class and package names to consecutive int ids, shared by all
+ * metrics. Every name is stored once, no matter how many couplings refer to it.
+ * The outer class of a nested class (separated with '$' like in bytecode) is
+ * determined once when the name is interned.
+ * <p>
+ * Known names and ids are looked up without locking, only adding a name is
+ * synchronized. A name is published after its entries were written, so every
+ * id handed out can be read by any thread.
+ *
+ */
+public class SymbolTable {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private static SymbolTable tableInstance;
+
+	private final Map<String, Integer> ids;
+	private volatile String[] names;
+	private volatile int[] outers;
+	private volatile int size;
+
+	/**
+	 * Constructor
+	 */
+	private SymbolTable() {
+		this.ids = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+		this.names = new String[INITIAL_CAPACITY];
+		this.outers = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Get Singleton instance.
+	 *
+	 * @return symbol table
+	 */
+	public static synchronized SymbolTable getInstance() {
+		if (tableInstance == null) {
+			tableInstance = new SymbolTable();
+		}
+		return tableInstance;
+	}
+
+	/**
+	 * Get the id of the given name, the name is added if it is unknown.
+	 *
+	 * @param name class or package name
+	 * @return id of the name
+	 */
+	public int intern(final String name) {
+
+		final Integer id = ids.get(name);
+		if (id != null)
+			return id;
+
+		return add(name);
+	}
+
+	/**
+	 * Get the id of the given name without adding it.
+	 *
+	 * @param name class or package name
+	 * @return id of the name, {@literal -1} if it is unknown.
+	 */
+	public int getId(final String name) {
+		final Integer id = ids.get(name);
+		return id == null ? -1 : id;
+	}
+
+	private synchronized int add(final String name) {
+
+		final Integer id = ids.get(name);
+		if (id != null)
+			return id;
+
+		// Map nested class to outer.
+		final int pos = name.indexOf('$');
+		final int outer = pos == -1 ? -1 : intern(name.substring(0, pos));
+
+		if (size == names.length) {
+			names = Arrays.copyOf(names, size * 2);
+			outers = Arrays.copyOf(outers, size * 2);
+		}
+
+		final int newId = size;
+		names[newId] = name;
+		outers[newId] = outer == -1 ? newId : outer;
+		size = newId + 1;
+		ids.put(name, newId);
+
+		return newId;
+	}
+
+	/**
+	 * Get the name of the given id.
+	 *
+	 * @param id
+	 * @return the interned name
+	 */
+	public String getName(final int id) {
+		if (id < 0 || id >= size)
+			throw new IllegalStateException("Unknown symbol id " + id + "!");
+		return names[id];
+	}
+
+	/**
+	 * Get the id of the outer class, e.g. a.B for a.B$C.
+	 *
+	 * @param id
+	 * @return id of the outer class, the given id if it is no nested class.
+	 */
+	public int getOuter(final int id) {
+		if (id < 0 || id >= size)
+			throw new IllegalStateException("Unknown symbol id " + id + "!");
+		return outers[id];
+	}
+
+	/**
+	 * Get the number of interned names.
+	 *
+	 * @return number of names
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * All names will be removed and ids are handed out from {@literal 0} again.
+	 * Every id handed out before is invalid, so this must only be called while no
+	 * couplings are counted and after all couplings were removed.
+	 */
+	public synchronized void clear() {
+		ids.clear();
+		names = new String[INITIAL_CAPACITY];
+		outers = new int[INITIAL_CAPACITY];
+		size = 0;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.monitor.graph;
+
+/**
+ * Measures the cyclic debt of every strongly connected component of a
+ * {@link CouplingGraph} without enumerating its cycles, so it works for graphs
+ * of hundreds of thousands of classes. A component is cyclic if it has more
+ * than one vertex or a self loop. Its debt is the cycle debt for each of its
+ * independent cycles, which are {@code edges - vertices + 1}, plus the weights
+ * of all its inner edges. A component that is a single cycle has the same debt
+ * as the cycle has in the {@link CycleEnumerator} based index.
+ *
+ */
+public class ComponentDebt {
+
+	private final CouplingGraph graph;
+	private final int[] componentOf;
+	private final int componentCount;
+	private final int[] vertexCounts;
+	private final int[] edgeCounts;
+	private final long[] weights;
+
+	/**
+	 * Constructor, finds all components and sums up their inner edges.
+	 * 
+	 * @param graph
+	 */
+	public ComponentDebt(final CouplingGraph graph) {
+		this.graph = graph;
+		this.componentOf = new int[graph.size()];
+		this.componentCount = new StronglyConnectedComponents(graph).assignComponents(componentOf);
+		this.vertexCounts = new int[componentCount];
+		this.edgeCounts = new int[componentCount];
+		this.weights = new long[componentCount];
+
+		for (int v = 0; v < graph.size(); v++) {
+			final int c = componentOf[v];
+			vertexCounts[c]++;
+
+			for (int edge = graph.firstEdge(v); edge < graph.endEdge(v); edge++) {
+				if (componentOf[graph.getTarget(edge)] == c) {
+					edgeCounts[c]++;
+					weights[c] += graph.getWeight(edge);
+				}
+			}
+		}
+	}
+
+	public CouplingGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Get the number of components, cyclic or not.
+	 * 
+	 * @return number of components
+	 */
+	public int getComponentCount() {
+		return componentCount;
+	}
+
+	/**
+	 * Get the component of the given vertex.
+	 * 
+	 * @param v
+	 * @return component
+	 */
+	public int getComponent(final int v) {
+		return componentOf[v];
+	}
+
+	public int getVertexCount(final int component) {
+		return vertexCounts[component];
+	}
+
+	/**
+	 * Checks if the given component contains a cycle.
+	 * 
+	 * @param component
+	 * @return {@code true} if it has more than one vertex or a self loop.
+	 */
+	public boolean isCyclic(final int component) {
+		return edgeCounts[component] > 0;
+	}
+
+	/**
+	 * Get the number of independent cycles of the given component.
+	 * 
+	 * @param component
+	 * @return {@literal 0} if the component is not cyclic.
+	 */
+	public int getIndependentCycles(final int component) {
+		return isCyclic(component) ? edgeCounts[component] - vertexCounts[component] + 1 : 0;
+	}
+
+	/**
+	 * Get the debt of the given component.
+	 * 
+	 * @param component
+	 * @param cycleDebt debt of every independent cycle
+	 * @return the debt, {@literal 0} if the component is not cyclic.
+	 */
+	public long getDebt(final int component, final int cycleDebt) {
+		return (long) cycleDebt * getIndependentCycles(component) + weights[component];
+	}
+}
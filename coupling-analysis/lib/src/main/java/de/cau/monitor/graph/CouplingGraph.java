@@ -0,0 +1,245 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cau.monitor.graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import de.cau.monitor.CouplingStore;
+import de.cau.monitor.SymbolTable;
+
+/**
+ * A directed weighted graph of couplings with int vertices. The edges are
+ * stored in adjacency arrays: the edges of vertex v are the entries from
+ * {@code offsets[v]} to {@code offsets[v + 1] - 1} of the target and weight
+ * arrays. Vertices are numbered in the order of their names, so the graph of
+ * the same couplings is always the same.
+ *
+ */
+public class CouplingGraph {
+
+	private final String[] names;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] weights;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param names   of all vertices
+	 * @param offsets of the edges of every vertex, one more than vertices.
+	 * @param targets of all edges
+	 * @param weights of all edges
+	 */
+	public CouplingGraph(final String[] names, final int[] offsets, final int[] targets, final int[] weights) {
+
+		if (offsets.length != names.length + 1 || targets.length != weights.length
+				|| offsets[names.length] != targets.length)
+			throw new IllegalStateException("Inconsistent adjacency arrays!");
+
+		this.names = names;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	/**
+	 * Creates the graph of the given couplings, the counts become the weights.
+	 * 
+	 * @param couplings as returned by
+	 *                  {@link de.cau.monitor.metrics.ACoupling#getRegisteredCouplings()}
+	 * @return the graph
+	 */
+	public static CouplingGraph of(final Map<String, Map<String, Integer>> couplings) {
+
+		final TreeSet<String> sortedNames = new TreeSet<>(couplings.keySet());
+		for (final Map<String, Integer> connectionCounts : couplings.values()) {
+			sortedNames.addAll(connectionCounts.keySet());
+		}
+
+		final String[] names = sortedNames.toArray(new String[0]);
+		final Map<String, Integer> toIdx = new HashMap<>(names.length * 2);
+		for (int i = 0; i < names.length; i++) {
+			toIdx.put(names[i], i);
+		}
+
+		final int[] offsets = new int[names.length + 1];
+		for (final Map.Entry<String, Map<String, Integer>> entry : couplings.entrySet()) {
+			offsets[toIdx.get(entry.getKey()) + 1] = entry.getValue().size();
+		}
+		for (int v = 0; v < names.length; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+
+		final int[] targets = new int[offsets[names.length]];
+		final int[] weights = new int[targets.length];
+		final long[] sortable = new long[targets.length];
+
+		for (final Map.Entry<String, Map<String, Integer>> entry : couplings.entrySet()) {
+			final int v = toIdx.get(entry.getKey());
+
+			// Edges are sorted by their target, weights are packed into the lower bits.
+			int i = offsets[v];
+			for (final Map.Entry<String, Integer> edge : entry.getValue().entrySet()) {
+				sortable[i++] = ((long) toIdx.get(edge.getKey()) << 32) | (edge.getValue() & 0xFFFFFFFFL);
+			}
+			Arrays.sort(sortable, offsets[v], offsets[v + 1]);
+
+			for (i = offsets[v]; i < offsets[v + 1]; i++) {
+				targets[i] = (int) (sortable[i] >>> 32);
+				weights[i] = (int) sortable[i];
+			}
+		}
+		return new CouplingGraph(names, offsets, targets, weights);
+	}
+
+	/**
+	 * Creates the graph of the given coupling store without building any maps, so
+	 * graphs of many classes can be created fast. The counts become the weights.
+	 * 
+	 * @param couplings of symbols
+	 * @param symbols   the symbols of the store
+	 * @return the graph
+	 */
+	public static CouplingGraph of(final CouplingStore couplings, final SymbolTable symbols) {
+
+		final int[] froms = new int[couplings.size()];
+		final int[] tos = new int[froms.length];
+		final int[] counts = new int[froms.length];
+		final int[] filled = new int[1];
+
+		couplings.forEach((from, to, count) -> {
+			froms[filled[0]] = from;
+			tos[filled[0]] = to;
+			counts[filled[0]++] = count;
+		});
+
+		// Maps a symbol id to its vertex, symbols without couplings stay unused.
+		final int[] toVertex = new int[symbols.size()];
+		Arrays.fill(toVertex, -1);
+		int vertexCount = 0;
+		for (int i = 0; i < froms.length; i++) {
+			if (toVertex[froms[i]] < 0)
+				toVertex[froms[i]] = vertexCount++;
+			if (toVertex[tos[i]] < 0)
+				toVertex[tos[i]] = vertexCount++;
+		}
+
+		final Integer[] sortedIds = new Integer[vertexCount];
+		for (int id = 0; id < toVertex.length; id++) {
+			if (toVertex[id] >= 0)
+				sortedIds[toVertex[id]] = id;
+		}
+		Arrays.sort(sortedIds, Comparator.comparing(symbols::getName));
+
+		final String[] names = new String[vertexCount];
+		for (int v = 0; v < vertexCount; v++) {
+			names[v] = symbols.getName(sortedIds[v]);
+			toVertex[sortedIds[v]] = v;
+		}
+
+		final int[] offsets = new int[vertexCount + 1];
+		for (final int from : froms) {
+			offsets[toVertex[from] + 1]++;
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+
+		// Edges are sorted by their target, weights are packed into the lower bits.
+		final long[] sortable = new long[froms.length];
+		final int[] next = Arrays.copyOf(offsets, vertexCount);
+		for (int i = 0; i < froms.length; i++) {
+			sortable[next[toVertex[froms[i]]]++] = ((long) toVertex[tos[i]] << 32) | (counts[i] & 0xFFFFFFFFL);
+		}
+
+		final int[] targets = new int[froms.length];
+		final int[] weights = new int[froms.length];
+		for (int v = 0; v < vertexCount; v++) {
+			Arrays.sort(sortable, offsets[v], offsets[v + 1]);
+		}
+		for (int i = 0; i < sortable.length; i++) {
+			targets[i] = (int) (sortable[i] >>> 32);
+			weights[i] = (int) sortable[i];
+		}
+		return new CouplingGraph(names, offsets, targets, weights);
+	}
+
+	/**
+	 * Get the number of vertices.
+	 * 
+	 * @return number of vertices
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * Get the number of edges.
+	 * 
+	 * @return number of edges
+	 */
+	public int edgeCount() {
+		return targets.length;
+	}
+
+	public String getName(final int v) {
+		return names[v];
+	}
+
+	/**
+	 * Get the index of the first edge of the given vertex.
+	 * 
+	 * @param v
+	 * @return edge index
+	 */
+	public int firstEdge(final int v) {
+		return offsets[v];
+	}
+
+	/**
+	 * Get the index after the last edge of the given vertex.
+	 * 
+	 * @param v
+	 * @return edge index
+	 */
+	public int endEdge(final int v) {
+		return offsets[v + 1];
+	}
+
+	public int getTarget(final int edge) {
+		return targets[edge];
+	}
+
+	public int getWeight(final int edge) {
+		return weights[edge];
+	}
+
+	/**
+	 * Get the weight of the edge between the given vertices.
+	 * 
+	 * @param from
+	 * @param to
+	 * @return the weight, {@literal 0} if there is no edge.
+	 */
+	public int getWeight(final int from, final int to) {
+		final int edge = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+		return edge < 0 ? 0 : weights[edge];
+	}
+}
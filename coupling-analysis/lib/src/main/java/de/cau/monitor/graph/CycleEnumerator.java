@@ -0,0 +1,269 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cau.monitor.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Enumerates the elementary cycles of a {@link CouplingGraph} with Johnson's
+ * algorithm. Every cycle is found exactly once. Cycles can only exist within a
+ * strongly connected component, so every component is searched on its own: all
+ * cycles through its lowest vertex are found, the vertex is removed and the
+ * components of the rest are searched again.
+ * <p>
+ * The number of cycles can grow exponentially with dense graphs, so the search
+ * stops after a maximal number of cycles or after its time budget.
+ *
+ */
+public class CycleEnumerator {
+
+	private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+	private final CouplingGraph graph;
+	private final int maxCycles;
+	private final long timeoutMillis;
+
+	private final boolean[] isInSubGraph;
+	private final boolean[] isBlocked;
+	private final boolean[] isClosed;
+	private final int[][] blockedBy;
+	private final int[] blockedBySize;
+	private final int[] nextEdge;
+	private final int[] path;
+	private int[] unblockStack;
+
+	private List<int[]> cycles;
+	private boolean isComplete;
+	private long deadline;
+	private int steps;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param graph
+	 * @param maxCycles     the search stops after this number of cycles.
+	 * @param timeoutMillis the search stops after this time, {@literal <= 0}
+	 *                      means no limit.
+	 */
+	public CycleEnumerator(final CouplingGraph graph, final int maxCycles, final long timeoutMillis) {
+		final int n = graph.size();
+		this.graph = graph;
+		this.maxCycles = maxCycles;
+		this.timeoutMillis = timeoutMillis;
+		this.isInSubGraph = new boolean[n];
+		this.isBlocked = new boolean[n];
+		this.isClosed = new boolean[n];
+		this.blockedBy = new int[n][];
+		this.blockedBySize = new int[n];
+		this.nextEdge = new int[n];
+		this.path = new int[n];
+		this.unblockStack = new int[Math.max(1, n)];
+	}
+
+	/**
+	 * Finds all elementary cycles, up to the maximal number of cycles and time.
+	 * 
+	 * @return the cycles, every cycle as its vertices in order, starting with its
+	 *         lowest vertex.
+	 */
+	public List<int[]> findCycles() {
+
+		cycles = new ArrayList<>();
+		isComplete = true;
+		deadline = timeoutMillis > 0 ? System.nanoTime() + timeoutMillis * 1_000_000L : Long.MAX_VALUE;
+		steps = 0;
+
+		final StronglyConnectedComponents sccs = new StronglyConnectedComponents(graph);
+		final int[] all = new int[graph.size()];
+		for (int v = 0; v < all.length; v++) {
+			all[v] = v;
+			isInSubGraph[v] = true;
+		}
+
+		final Deque<int[]> pending = new ArrayDeque<>();
+		pushCyclic(pending, sccs.findComponents(all, isInSubGraph));
+		Arrays.fill(isInSubGraph, false);
+
+		while (!pending.isEmpty()) {
+			final int[] component = pending.pop();
+
+			for (final int v : component) {
+				isInSubGraph[v] = true;
+			}
+
+			final boolean isStopped = !findCyclesThrough(component[0]);
+
+			for (final int v : component) {
+				isBlocked[v] = false;
+				blockedBySize[v] = 0;
+			}
+
+			if (isStopped) {
+				isComplete = false;
+				Arrays.fill(isInSubGraph, false);
+				break;
+			}
+
+			// All cycles through the lowest vertex are found, search the rest.
+			isInSubGraph[component[0]] = false;
+			final int[] rest = Arrays.copyOfRange(component, 1, component.length);
+			pushCyclic(pending, sccs.findComponents(rest, isInSubGraph));
+
+			for (final int v : rest) {
+				isInSubGraph[v] = false;
+			}
+		}
+		return cycles;
+	}
+
+	/**
+	 * Check if the last search found all cycles.
+	 * 
+	 * @return {@code false} if the search stopped at the maximal number of cycles
+	 *         or its time budget, otherwise {@code true}
+	 */
+	public boolean isComplete() {
+		return isComplete;
+	}
+
+	/**
+	 * Pushes all components, that can contain a cycle, the lowest on top.
+	 * 
+	 * @param pending
+	 * @param components
+	 */
+	private void pushCyclic(final Deque<int[]> pending, final List<int[]> components) {
+
+		components.sort((a, b) -> Integer.compare(b[0], a[0]));
+		for (final int[] component : components) {
+			if (component.length > 1 || graph.getWeight(component[0], component[0]) > 0) {
+				pending.push(component);
+			}
+		}
+	}
+
+	/**
+	 * Johnson's circuit search with an explicit stack, the path is the stack.
+	 * 
+	 * @param start
+	 * @return {@code false} if the search was stopped, otherwise {@code true}
+	 */
+	private boolean findCyclesThrough(final int start) {
+
+		int pathSize = 0;
+		path[pathSize++] = start;
+		nextEdge[start] = graph.firstEdge(start);
+		isBlocked[start] = true;
+		isClosed[start] = false;
+
+		while (pathSize > 0) {
+
+			if (++steps % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline)
+				return false;
+
+			final int v = path[pathSize - 1];
+
+			if (nextEdge[v] < graph.endEdge(v)) {
+				final int w = graph.getTarget(nextEdge[v]++);
+
+				if (!isInSubGraph[w])
+					continue;
+
+				if (w == start) {
+					cycles.add(Arrays.copyOf(path, pathSize));
+					for (int i = 0; i < pathSize; i++) {
+						isClosed[path[i]] = true;
+					}
+					if (cycles.size() >= maxCycles)
+						return false;
+
+				} else if (!isBlocked[w]) {
+					path[pathSize++] = w;
+					nextEdge[w] = graph.firstEdge(w);
+					isBlocked[w] = true;
+					isClosed[w] = false;
+				}
+				continue;
+			}
+
+			// All edges of v are done.
+			if (isClosed[v]) {
+				unblock(v);
+			} else {
+				for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+					final int w = graph.getTarget(e);
+					if (isInSubGraph[w]) {
+						addBlockedBy(w, v);
+					}
+				}
+			}
+			pathSize--;
+		}
+		return true;
+	}
+
+	/**
+	 * Unblocks the given vertex and all vertices, that are blocked by it.
+	 * 
+	 * @param u
+	 */
+	private void unblock(final int u) {
+
+		int size = 0;
+		unblockStack[size++] = u;
+
+		while (size > 0) {
+			final int v = unblockStack[--size];
+			if (isBlocked[v]) {
+				isBlocked[v] = false;
+
+				if (size + blockedBySize[v] > unblockStack.length) {
+					unblockStack = Arrays.copyOf(unblockStack,
+							Math.max(unblockStack.length * 2, size + blockedBySize[v]));
+				}
+				for (int i = 0; i < blockedBySize[v]; i++) {
+					unblockStack[size++] = blockedBy[v][i];
+				}
+				blockedBySize[v] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Remembers to unblock v, when w gets unblocked.
+	 * 
+	 * @param w
+	 * @param v
+	 */
+	private void addBlockedBy(final int w, final int v) {
+
+		for (int i = 0; i < blockedBySize[w]; i++) {
+			if (blockedBy[w][i] == v)
+				return;
+		}
+
+		if (blockedBy[w] == null) {
+			blockedBy[w] = new int[4];
+		} else if (blockedBySize[w] == blockedBy[w].length) {
+			blockedBy[w] = Arrays.copyOf(blockedBy[w], blockedBySize[w] * 2);
+		}
+		blockedBy[w][blockedBySize[w]++] = v;
+	}
+}
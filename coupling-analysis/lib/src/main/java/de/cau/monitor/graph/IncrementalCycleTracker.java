@@ -0,0 +1,765 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.monitor.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the strongly connected components of a changing coupling graph and
+ * their debt up to date, so the index of a coupling can be refreshed after
+ * every added or removed coupling without searching the whole graph again. The
+ * debt of a component is the one of {@link ComponentDebt}. Cycles are not
+ * listed, so the score differs from the cycle based index of the package
+ * coupling.
+ * <p>
+ * The components are kept in topological order with the algorithm of Pearce
+ * and Kelly: a new coupling against the order only searches the components
+ * between its ends and reorders them, if it closes a cycle the components on
+ * the cycle are merged. Removing a coupling within a component searches this
+ * component again and splits it, if it is no longer strongly connected. A split
+ * renumbers the topological order of all components, so it costs the number of
+ * components on top of the size of the split component.
+ *
+ */
+public class IncrementalCycleTracker {
+
+	private static final int NONE = -1;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int cycleDebt;
+	private final Map<String, Integer> vertexOf;
+
+	// Vertices: couplings and components.
+	private IntList[] targets;
+	private IntList[] weights;
+	private IntList[] sources;
+	private int[] componentOf;
+	private int vertexCount;
+
+	// Components: members, inner couplings and positions in topological order.
+	private IntList[] members;
+	private int[] innerEdges;
+	private long[] innerWeights;
+	private int[] position;
+	private int componentCount;
+	private final IntList freeComponents;
+
+	// Topological order, freed positions are NONE.
+	private int[] componentAt;
+	private int positionCount;
+
+	private long score;
+	private int cyclicComponents;
+
+	// Work arrays of the searches.
+	private int[] forwardMark;
+	private int[] backwardMark;
+	private int epoch;
+	private final IntList forward;
+	private final IntList backward;
+	private final IntList searchStack;
+	private int[] partOf;
+	private int[] index;
+	private int[] low;
+	private int[] nextEdge;
+	private int[] callStack;
+	private int[] componentStack;
+	private boolean[] isOnStack;
+
+	/**
+	 * Constructor of an empty graph.
+	 * 
+	 * @param cycleDebt debt of every independent cycle
+	 */
+	public IncrementalCycleTracker(final int cycleDebt) {
+		this.cycleDebt = cycleDebt;
+		this.vertexOf = new HashMap<>();
+		this.freeComponents = new IntList();
+		this.forward = new IntList();
+		this.backward = new IntList();
+		this.searchStack = new IntList();
+		this.targets = new IntList[0];
+		this.weights = new IntList[0];
+		this.sources = new IntList[0];
+		this.componentOf = new int[0];
+		this.members = new IntList[0];
+		this.innerEdges = new int[0];
+		this.innerWeights = new long[0];
+		this.position = new int[0];
+		this.forwardMark = new int[0];
+		this.backwardMark = new int[0];
+		allocateVertices(INITIAL_CAPACITY);
+		allocateComponents(INITIAL_CAPACITY);
+		this.componentAt = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Creates a tracker of the given graph, its components are found once with
+	 * {@link StronglyConnectedComponents}.
+	 * 
+	 * @param graph
+	 * @param cycleDebt debt of every independent cycle
+	 * @return the tracker
+	 */
+	public static IncrementalCycleTracker of(final CouplingGraph graph, final int cycleDebt) {
+
+		final IncrementalCycleTracker tracker = new IncrementalCycleTracker(cycleDebt);
+		final int[] componentOf = new int[graph.size()];
+		final int count = new StronglyConnectedComponents(graph).assignComponents(componentOf);
+
+		// Tarjan numbers the components in reverse topological order.
+		final int[] toComponent = new int[count];
+		for (int c = count - 1; c >= 0; c--) {
+			toComponent[c] = tracker.newComponent();
+		}
+
+		for (int v = 0; v < graph.size(); v++) {
+			tracker.newVertex(graph.getName(v), toComponent[componentOf[v]]);
+		}
+
+		for (int v = 0; v < graph.size(); v++) {
+			for (int edge = graph.firstEdge(v); edge < graph.endEdge(v); edge++) {
+				tracker.insertEdge(v, graph.getTarget(edge), graph.getWeight(edge));
+			}
+		}
+
+		for (int c = 0; c < tracker.componentCount; c++) {
+			tracker.recountInnerEdges(c);
+			tracker.admit(c);
+		}
+		return tracker;
+	}
+
+	/**
+	 * Adds the given count to the coupling between the given classes or packages.
+	 * 
+	 * @param from
+	 * @param to
+	 * @param count to add, must be positive.
+	 */
+	public void addEdge(final String from, final String to, final int count) {
+
+		if (count <= 0)
+			throw new IllegalStateException("Count of a coupling must be positive: " + count);
+
+		final int v = getOrCreateVertex(from);
+		final int w = getOrCreateVertex(to);
+		final int cf = componentOf[v];
+		final int ct = componentOf[w];
+
+		final int edge = targets[v].indexOf(w);
+		if (edge != NONE) {
+			weights[v].set(edge, weights[v].get(edge) + count);
+			if (cf == ct) {
+				retire(cf);
+				innerWeights[cf] += count;
+				admit(cf);
+			}
+			return;
+		}
+
+		insertEdge(v, w, count);
+
+		if (cf == ct) {
+			retire(cf);
+			innerEdges[cf]++;
+			innerWeights[cf] += count;
+			admit(cf);
+
+		} else if (position[cf] > position[ct]) {
+			restoreOrder(cf, ct);
+		}
+	}
+
+	/**
+	 * Removes the given count from the coupling between the given classes or
+	 * packages. The coupling is removed, if its count drops to zero.
+	 * 
+	 * @param from
+	 * @param to
+	 * @param count to remove, must be positive.
+	 */
+	public void removeEdge(final String from, final String to, final int count) {
+
+		if (count <= 0)
+			throw new IllegalStateException("Count of a coupling must be positive: " + count);
+
+		final Integer v = vertexOf.get(from);
+		final Integer w = vertexOf.get(to);
+		final int edge = v == null || w == null ? NONE : targets[v].indexOf(w);
+		if (edge == NONE)
+			return;
+
+		final int c = componentOf[v];
+		final int weight = weights[v].get(edge);
+		final boolean isInner = c == componentOf[w];
+
+		if (weight > count) {
+			weights[v].set(edge, weight - count);
+			if (isInner) {
+				retire(c);
+				innerWeights[c] -= count;
+				admit(c);
+			}
+			return;
+		}
+
+		targets[v].removeAt(edge);
+		weights[v].removeAt(edge);
+		sources[w].removeAt(sources[w].indexOf(v));
+
+		if (isInner) {
+			retire(c);
+			innerEdges[c]--;
+			innerWeights[c] -= weight;
+			split(c);
+		}
+	}
+
+	/**
+	 * Removes the coupling between the given classes or packages.
+	 * 
+	 * @param from
+	 * @param to
+	 */
+	public void removeEdge(final String from, final String to) {
+		removeEdge(from, to, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Get the count of the coupling between the given classes or packages.
+	 * 
+	 * @param from
+	 * @param to
+	 * @return the count, {@literal 0} if there is no coupling.
+	 */
+	public int getWeight(final String from, final String to) {
+
+		final Integer v = vertexOf.get(from);
+		final Integer w = vertexOf.get(to);
+		final int edge = v == null || w == null ? NONE : targets[v].indexOf(w);
+		return edge == NONE ? 0 : weights[v].get(edge);
+	}
+
+	/**
+	 * Get the debt of all cyclic components.
+	 * 
+	 * @return score
+	 */
+	public long getScore() {
+		return score;
+	}
+
+	public int getCyclicComponentCount() {
+		return cyclicComponents;
+	}
+
+	/**
+	 * Checks if the given class or package is part of a cycle.
+	 * 
+	 * @param name
+	 * @return {@code true} if its component is cyclic.
+	 */
+	public boolean isInCycle(final String name) {
+		final Integer v = vertexOf.get(name);
+		return v != null && innerEdges[componentOf[v]] > 0;
+	}
+
+	/**
+	 * Reorders the components between the ends of the new coupling from cf to ct,
+	 * that is against the topological order. The components reachable from ct and
+	 * the ones reaching cf are searched within the positions of both. If a
+	 * component is in both sets, the coupling closed a cycle and all components
+	 * in both sets are merged.
+	 * 
+	 * @param cf component of the source
+	 * @param ct component of the target
+	 */
+	private void restoreOrder(final int cf, final int ct) {
+
+		final int lowerBound = position[ct];
+		final int upperBound = position[cf];
+		epoch++;
+
+		search(ct, forward, forwardMark, true, upperBound);
+		search(cf, backward, backwardMark, false, lowerBound);
+
+		// Pool the positions of all searched components.
+		final int[] slots = new int[forward.size + backward.size];
+		int slotCount = 0;
+		for (int i = 0; i < forward.size; i++) {
+			slots[slotCount++] = position[forward.get(i)];
+		}
+		for (int i = 0; i < backward.size; i++) {
+			if (forwardMark[backward.get(i)] != epoch)
+				slots[slotCount++] = position[backward.get(i)];
+		}
+		Arrays.sort(slots, 0, slotCount);
+
+		final boolean isCycle = forwardMark[cf] == epoch;
+		final int[] before = sortByPosition(backward, forwardMark, isCycle);
+		final int[] after = sortByPosition(forward, backwardMark, isCycle);
+
+		for (int i = 0; i < slotCount; i++) {
+			componentAt[slots[i]] = NONE;
+		}
+
+		// Reaching cf comes first, reachable from ct last. Leaving out merged
+		// components keeps both sides on their side of the order.
+		for (int i = 0; i < before.length; i++) {
+			place(before[i], slots[i]);
+		}
+		for (int i = 0; i < after.length; i++) {
+			place(after[i], slots[slotCount - after.length + i]);
+		}
+
+		if (isCycle) {
+			final IntList cycle = new IntList();
+			for (int i = 0; i < forward.size; i++) {
+				if (backwardMark[forward.get(i)] == epoch)
+					cycle.add(forward.get(i));
+			}
+			place(merge(cycle), slots[before.length]);
+		}
+	}
+
+	/**
+	 * Collects all components reachable from, or reaching, the given one within
+	 * the given bound of positions.
+	 * 
+	 * @param start     component
+	 * @param visited   receives the found components
+	 * @param mark      of the found components
+	 * @param isForward follow couplings forwards or backwards
+	 * @param bound     highest position forwards, lowest position backwards.
+	 */
+	private void search(final int start, final IntList visited, final int[] mark, final boolean isForward,
+			final int bound) {
+
+		visited.clear();
+		searchStack.clear();
+		mark[start] = epoch;
+		visited.add(start);
+		searchStack.add(start);
+
+		while (searchStack.size > 0) {
+			final IntList component = members[searchStack.removeLast()];
+
+			for (int i = 0; i < component.size; i++) {
+				final int v = component.get(i);
+				final IntList neighbours = isForward ? targets[v] : sources[v];
+
+				for (int j = 0; j < neighbours.size; j++) {
+					final int d = componentOf[neighbours.get(j)];
+
+					if (mark[d] != epoch && (isForward ? position[d] <= bound : position[d] >= bound)) {
+						mark[d] = epoch;
+						visited.add(d);
+						searchStack.add(d);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sorts the given components by their position.
+	 * 
+	 * @param components
+	 * @param otherMark   marks of the other search
+	 * @param skipMarked  leave out the components found by both searches.
+	 * @return the sorted components
+	 */
+	private int[] sortByPosition(final IntList components, final int[] otherMark, final boolean skipMarked) {
+
+		final long[] sortable = new long[components.size];
+		int count = 0;
+		for (int i = 0; i < components.size; i++) {
+			final int c = components.get(i);
+			if (!skipMarked || otherMark[c] != epoch)
+				sortable[count++] = ((long) position[c] << 32) | c;
+		}
+		Arrays.sort(sortable, 0, count);
+
+		final int[] sorted = new int[count];
+		for (int i = 0; i < count; i++) {
+			sorted[i] = (int) sortable[i];
+		}
+		return sorted;
+	}
+
+	/**
+	 * Merges the given components into the largest of them.
+	 * 
+	 * @param components
+	 * @return the merged component
+	 */
+	private int merge(final IntList components) {
+
+		int target = components.get(0);
+		for (int i = 1; i < components.size; i++) {
+			if (members[components.get(i)].size > members[target].size)
+				target = components.get(i);
+		}
+
+		retire(target);
+		for (int i = 0; i < components.size; i++) {
+			final int c = components.get(i);
+			if (c == target)
+				continue;
+
+			retire(c);
+			final IntList merged = members[c];
+			for (int j = 0; j < merged.size; j++) {
+				componentOf[merged.get(j)] = target;
+				members[target].add(merged.get(j));
+			}
+			freeComponent(c);
+		}
+
+		recountInnerEdges(target);
+		admit(target);
+		return target;
+	}
+
+	/**
+	 * Searches the given component again, after one of its inner couplings was
+	 * removed. If it falls apart, the parts take its position in topological
+	 * order. The debt of the component has to be retired already.
+	 * 
+	 * @param c
+	 */
+	private void split(final int c) {
+
+		final IntList component = members[c];
+		if (component.size == 1) {
+			admit(c);
+			return;
+		}
+
+		final int parts = findParts(component);
+		if (parts == 1) {
+			admit(c);
+			return;
+		}
+
+		// Tarjan numbers the parts in reverse topological order, part 0 keeps c.
+		final int[] toComponent = new int[parts];
+		toComponent[0] = c;
+		for (int part = 1; part < parts; part++) {
+			toComponent[part] = newComponentId();
+		}
+
+		final int[] vertices = Arrays.copyOf(component.values, component.size);
+		component.clear();
+		for (final int v : vertices) {
+			componentOf[v] = toComponent[partOf[v]];
+			members[componentOf[v]].add(v);
+		}
+
+		// Insert the parts at the position of c and close all gaps.
+		final int splitAt = position[c];
+		final int[] order = new int[positionCount + parts];
+		int count = 0;
+		for (int p = 0; p < positionCount; p++) {
+			if (p == splitAt) {
+				for (int part = parts - 1; part >= 0; part--) {
+					order[count++] = toComponent[part];
+				}
+			} else if (componentAt[p] != NONE) {
+				order[count++] = componentAt[p];
+			}
+		}
+		componentAt = order;
+		positionCount = count;
+		for (int p = 0; p < count; p++) {
+			position[order[p]] = p;
+		}
+
+		for (final int part : toComponent) {
+			recountInnerEdges(part);
+			admit(part);
+		}
+	}
+
+	/**
+	 * Finds the strongly connected parts of a component with Tarjan's algorithm
+	 * and an explicit call stack. The parts are numbered in reverse topological
+	 * order.
+	 * 
+	 * @param component vertices of the component
+	 * @return number of parts, the part of every vertex is in {@link #partOf}.
+	 */
+	private int findParts(final IntList component) {
+
+		final int c = componentOf[component.get(0)];
+		for (int i = 0; i < component.size; i++) {
+			index[component.get(i)] = NONE;
+		}
+
+		int counter = 0;
+		int parts = 0;
+		int stackSize = 0;
+
+		for (int i = 0; i < component.size; i++) {
+			final int root = component.get(i);
+			if (index[root] != NONE)
+				continue;
+
+			int depth = 0;
+			callStack[depth++] = root;
+			index[root] = low[root] = counter++;
+			nextEdge[root] = 0;
+			componentStack[stackSize++] = root;
+			isOnStack[root] = true;
+
+			while (depth > 0) {
+				final int v = callStack[depth - 1];
+
+				if (nextEdge[v] < targets[v].size) {
+					final int w = targets[v].get(nextEdge[v]++);
+
+					if (isOnStack[w]) {
+						low[v] = Math.min(low[v], index[w]);
+					} else if (componentOf[w] == c && index[w] == NONE) {
+						callStack[depth++] = w;
+						index[w] = low[w] = counter++;
+						nextEdge[w] = 0;
+						componentStack[stackSize++] = w;
+						isOnStack[w] = true;
+					}
+					continue;
+				}
+
+				depth--;
+				if (low[v] == index[v]) {
+					int w;
+					do {
+						w = componentStack[--stackSize];
+						isOnStack[w] = false;
+						partOf[w] = parts;
+					} while (w != v);
+					parts++;
+				}
+
+				if (depth > 0) {
+					final int caller = callStack[depth - 1];
+					low[caller] = Math.min(low[caller], low[v]);
+				}
+			}
+		}
+		return parts;
+	}
+
+	/**
+	 * Counts the couplings within the given component again.
+	 * 
+	 * @param c
+	 */
+	private void recountInnerEdges(final int c) {
+
+		final IntList component = members[c];
+		innerEdges[c] = 0;
+		innerWeights[c] = 0;
+
+		for (int i = 0; i < component.size; i++) {
+			final int v = component.get(i);
+			for (int j = 0; j < targets[v].size; j++) {
+				if (componentOf[targets[v].get(j)] == c) {
+					innerEdges[c]++;
+					innerWeights[c] += weights[v].get(j);
+				}
+			}
+		}
+	}
+
+	private long getDebt(final int c) {
+		return innerEdges[c] == 0 ? 0
+				: (long) cycleDebt * (innerEdges[c] - members[c].size + 1) + innerWeights[c];
+	}
+
+	/**
+	 * Removes the debt of the given component from the score, before it changes.
+	 * 
+	 * @param c
+	 */
+	private void retire(final int c) {
+		score -= getDebt(c);
+		if (innerEdges[c] > 0)
+			cyclicComponents--;
+	}
+
+	/**
+	 * Adds the debt of the given component to the score, after it changed.
+	 * 
+	 * @param c
+	 */
+	private void admit(final int c) {
+		score += getDebt(c);
+		if (innerEdges[c] > 0)
+			cyclicComponents++;
+	}
+
+	private void place(final int c, final int slot) {
+		componentAt[slot] = c;
+		position[c] = slot;
+	}
+
+	private int getOrCreateVertex(final String name) {
+		final Integer v = vertexOf.get(name);
+		return v != null ? v : newVertex(name, newComponent());
+	}
+
+	/**
+	 * Creates a vertex without couplings.
+	 * 
+	 * @param name
+	 * @param c    component of the vertex
+	 * @return the vertex
+	 */
+	private int newVertex(final String name, final int c) {
+
+		if (vertexCount == targets.length) {
+			allocateVertices(vertexCount * 2);
+		}
+
+		final int v = vertexCount++;
+		targets[v] = new IntList();
+		weights[v] = new IntList();
+		sources[v] = new IntList();
+		componentOf[v] = c;
+		members[c].add(v);
+		vertexOf.put(name, v);
+		return v;
+	}
+
+	private void insertEdge(final int v, final int w, final int weight) {
+		targets[v].add(w);
+		weights[v].add(weight);
+		sources[w].add(v);
+	}
+
+	/**
+	 * Creates an empty component at the end of the topological order.
+	 * 
+	 * @return the component
+	 */
+	private int newComponent() {
+
+		final int c = newComponentId();
+		if (positionCount == componentAt.length) {
+			componentAt = Arrays.copyOf(componentAt, positionCount * 2);
+		}
+		place(c, positionCount++);
+		return c;
+	}
+
+	private int newComponentId() {
+
+		if (freeComponents.size > 0)
+			return freeComponents.removeLast();
+
+		if (componentCount == members.length) {
+			allocateComponents(componentCount * 2);
+		}
+		members[componentCount] = new IntList();
+		return componentCount++;
+	}
+
+	private void freeComponent(final int c) {
+		members[c].clear();
+		innerEdges[c] = 0;
+		innerWeights[c] = 0;
+		position[c] = NONE;
+		freeComponents.add(c);
+	}
+
+	private void allocateVertices(final int capacity) {
+		targets = Arrays.copyOf(targets, capacity);
+		weights = Arrays.copyOf(weights, capacity);
+		sources = Arrays.copyOf(sources, capacity);
+		componentOf = Arrays.copyOf(componentOf, capacity);
+		partOf = new int[capacity];
+		index = new int[capacity];
+		low = new int[capacity];
+		nextEdge = new int[capacity];
+		callStack = new int[capacity];
+		componentStack = new int[capacity];
+		isOnStack = new boolean[capacity];
+	}
+
+	private void allocateComponents(final int capacity) {
+		members = Arrays.copyOf(members, capacity);
+		innerEdges = Arrays.copyOf(innerEdges, capacity);
+		innerWeights = Arrays.copyOf(innerWeights, capacity);
+		position = Arrays.copyOf(position, capacity);
+		forwardMark = Arrays.copyOf(forwardMark, capacity);
+		backwardMark = Arrays.copyOf(backwardMark, capacity);
+	}
+
+	/**
+	 * A growing list of ints.
+	 */
+	private static class IntList {
+
+		private int[] values = new int[4];
+		private int size;
+
+		void add(final int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int get(final int i) {
+			return values[i];
+		}
+
+		void set(final int i, final int value) {
+			values[i] = value;
+		}
+
+		int indexOf(final int value) {
+			for (int i = 0; i < size; i++) {
+				if (values[i] == value)
+					return i;
+			}
+			return NONE;
+		}
+
+		/**
+		 * Removes the value at the given index, the last value takes its place.
+		 * 
+		 * @param i
+		 */
+		void removeAt(final int i) {
+			values[i] = values[--size];
+		}
+
+		int removeLast() {
+			return values[--size];
+		}
+
+		void clear() {
+			size = 0;
+		}
+	}
+}
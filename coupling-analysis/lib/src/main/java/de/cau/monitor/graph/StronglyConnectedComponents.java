@@ -0,0 +1,184 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cau.monitor.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the strongly connected components of a {@link CouplingGraph} with
+ * Tarjan's algorithm in linear time. The depth-first search keeps its own
+ * stack, so it does not recurse, no matter how long the paths of the graph
+ * are. The work arrays are allocated once and can be used for any number of
+ * searches on sub graphs.
+ *
+ */
+public class StronglyConnectedComponents {
+
+	private static final int UNVISITED = -1;
+
+	private final CouplingGraph graph;
+	private final int[] index;
+	private final int[] low;
+	private final int[] nextEdge;
+	private final int[] callStack;
+	private final int[] componentStack;
+	private final boolean[] isOnStack;
+	private final int[] subGraphComponentOf;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param graph
+	 */
+	public StronglyConnectedComponents(final CouplingGraph graph) {
+		final int n = graph.size();
+		this.graph = graph;
+		this.index = new int[n];
+		this.low = new int[n];
+		this.nextEdge = new int[n];
+		this.callStack = new int[n];
+		this.componentStack = new int[n];
+		this.isOnStack = new boolean[n];
+		this.subGraphComponentOf = new int[n];
+	}
+
+	/**
+	 * Assigns the component of every vertex of the whole graph. Components are
+	 * numbered in reverse topological order, a component only has edges to
+	 * components with a lower number.
+	 * 
+	 * @param componentOf receives the component of every vertex.
+	 * @return the number of components
+	 */
+	public int assignComponents(final int[] componentOf) {
+
+		final int[] vertices = new int[graph.size()];
+		for (int v = 0; v < vertices.length; v++) {
+			vertices[v] = v;
+		}
+		return search(vertices, null, componentOf);
+	}
+
+	/**
+	 * Finds the components of the sub graph of the given vertices.
+	 * 
+	 * @param vertices of the sub graph
+	 * @param mask     {@code true} for every vertex of the sub graph
+	 * @return the components, every one sorted ascending.
+	 */
+	public List<int[]> findComponents(final int[] vertices, final boolean[] mask) {
+
+		final int[] componentOf = subGraphComponentOf;
+		final int count = search(vertices, mask, componentOf);
+
+		final int[] sizes = new int[count];
+		for (final int v : vertices) {
+			sizes[componentOf[v]]++;
+		}
+
+		final List<int[]> components = new ArrayList<>(count);
+		for (int c = 0; c < count; c++) {
+			components.add(new int[sizes[c]]);
+		}
+
+		final int[] filled = new int[count];
+		for (final int v : vertices) {
+			final int c = componentOf[v];
+			components.get(c)[filled[c]++] = v;
+		}
+		for (final int[] component : components) {
+			Arrays.sort(component);
+		}
+		return components;
+	}
+
+	/**
+	 * Tarjan's algorithm with an explicit call stack.
+	 * 
+	 * @param vertices    to search
+	 * @param mask        of the sub graph, {@code null} for the whole graph.
+	 * @param componentOf receives the component of every given vertex.
+	 * @return the number of components
+	 */
+	private int search(final int[] vertices, final boolean[] mask, final int[] componentOf) {
+
+		for (final int v : vertices) {
+			index[v] = UNVISITED;
+		}
+
+		int counter = 0;
+		int components = 0;
+		int stackSize = 0;
+
+		for (final int root : vertices) {
+
+			if (index[root] != UNVISITED)
+				continue;
+
+			int depth = 0;
+			callStack[depth++] = root;
+			index[root] = low[root] = counter++;
+			nextEdge[root] = graph.firstEdge(root);
+			componentStack[stackSize++] = root;
+			isOnStack[root] = true;
+
+			while (depth > 0) {
+				final int v = callStack[depth - 1];
+
+				if (nextEdge[v] < graph.endEdge(v)) {
+					final int w = graph.getTarget(nextEdge[v]++);
+
+					if (mask != null && !mask[w])
+						continue;
+
+					if (index[w] == UNVISITED) {
+						// Descend into w.
+						callStack[depth++] = w;
+						index[w] = low[w] = counter++;
+						nextEdge[w] = graph.firstEdge(w);
+						componentStack[stackSize++] = w;
+						isOnStack[w] = true;
+
+					} else if (isOnStack[w]) {
+						low[v] = Math.min(low[v], index[w]);
+					}
+					continue;
+				}
+
+				// All edges of v are done, return to the caller.
+				depth--;
+
+				if (low[v] == index[v]) {
+					int w;
+					do {
+						w = componentStack[--stackSize];
+						isOnStack[w] = false;
+						componentOf[w] = components;
+					} while (w != v);
+					components++;
+				}
+
+				if (depth > 0) {
+					final int caller = callStack[depth - 1];
+					low[caller] = Math.min(low[caller], low[v]);
+				}
+			}
+		}
+		return components;
+	}
+}
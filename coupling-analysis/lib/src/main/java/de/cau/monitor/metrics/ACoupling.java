@@ -16,10 +16,15 @@
 
 package de.cau.monitor.metrics;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.NotImplementedException;
 
@@ -28,13 +33,20 @@ import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.type.Type;
 
 import de.cau.config.Configuration;
-import de.cau.monitor.CouplingMonitor;
+import de.cau.monitor.CouplingAccumulator;
+import de.cau.monitor.CouplingStore;
+import de.cau.monitor.ProjectFilter;
+import de.cau.monitor.SymbolTable;
+import de.cau.monitor.graph.CouplingGraph;
+import de.cau.sourcecode.SourceClassContext;
 import de.cau.tools.Logger;
 import de.cau.tools.MetaInfo;
 import de.cau.tools.Tag;
 
 /**
  * An abstract representation of a coupling metric and helper functions.
+ * Couplings can be added from several threads at once, the results must be
+ * read after all of them finished.
  */
 public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 
@@ -42,18 +54,35 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 	private final CouplingTag nameTag;
 	protected final MetaInfo sourceCodeInfo;
 	protected final MetaInfo byteCodeInfo;
-	public Set<String> storeVisitor;
+	private Set<String> storeVisitor;
 
-	private final Map<String, Map<String, Integer>> couplings;
+	private final SymbolTable symbols;
+	private final CouplingAccumulator accumulator;
+	private final CouplingStore couplings;
+	private Map<String, Map<String, Integer>> couplingView;
+	private int couplingViewVersion;
 
 	public ACoupling(final CouplingTag nameTag) {
-		this.couplings = new HashMap<>();
+		this.symbols = SymbolTable.getInstance();
+		this.accumulator = new CouplingAccumulator();
+		this.couplings = new CouplingStore();
 		this.logger = Logger.getInstance();
 		this.nameTag = nameTag;
 		this.sourceCodeInfo = Configuration.getSourceCodeInfo();
 		this.byteCodeInfo = Configuration.getByteCodeInfo();
 	}
 
+	/**
+	 * Calculates the coupling for sourcecode from the collected context of a
+	 * class. Metrics that do not override this, calculate the coupling from the
+	 * declaration of the class.
+	 * 
+	 * @param context of the class
+	 */
+	public void calculateCoupling(final SourceClassContext context) {
+		calculateCoupling(context.getDeclaration(), context.getClassName());
+	}
+
 	/**
 	 * Add sourcecode coupling.
 	 * 
@@ -62,7 +91,7 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 	 * @param tag  {@link CouplingTag}
 	 */
 	protected void addSourceCodeCoupling(final String from, final String to, final Tag tag) {
-		addCoupling(from, to, sourceCodeInfo, tag, concatWithArrow(from, to));
+		addCoupling(from, to, sourceCodeInfo, tag, () -> concatWithArrow(from, to));
 	}
 
 	/**
@@ -73,7 +102,7 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 	 * @param tag  {@link CouplingTag}
 	 */
 	protected void addByteCodeCoupling(final String from, final String to, final Tag tag) {
-		addCoupling(from, to, byteCodeInfo, tag, concatWithArrow(from, to));
+		addCoupling(from, to, byteCodeInfo, tag, () -> concatWithArrow(from, to));
 	}
 
 	/**
@@ -84,28 +113,30 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 	 * @param to
 	 * @param metaInfo
 	 * @param tag
-	 * @param msg
+	 * @param msg      formatted only if it is logged.
 	 */
-	private void addCoupling(String from, String to, final MetaInfo metaInfo, final Tag tag, final String msg) {
+	private void addCoupling(final String from, final String to, final MetaInfo metaInfo, final Tag tag,
+			final Supplier<String> msg) {
 
-		from = mapNestedClassToOuter(from);
-		to = mapNestedClassToOuter(to);
+		// Nested classes are mapped to their outer class by the symbol table.
+		final int fromId = symbols.getOuter(symbols.intern(from));
+		final int toId = symbols.getOuter(symbols.intern(to));
 
 		// We only want to store necessary connections.
-		if (isFiltered(from, to, tag)) {
+		if (isFiltered(fromId, toId, tag)) {
 
 			if (tag == Tag.RESOLVED) {
-				if (from.equals(to)) {
+				if (fromId == toId) {
 					metaInfo.countAsSelfConnection(this);
 				} else {
 					logger.logByTag(msg, tag, metaInfo, this);
-					addCoupling(from, to);
+					addCoupling(fromId, toId);
 				}
 			} else {
 				logger.logByTag(msg, tag, metaInfo, this);
 			}
 		} else {
-			logger.logFilteredOut(concatWithArrow(from, to));
+			logger.logFilteredOut(() -> concatWithArrow(symbols.getName(fromId), symbols.getName(toId)));
 			metaInfo.countAsFiltered(this);
 		}
 	}
@@ -113,34 +144,18 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 	/**
 	 * Adds coupling and counts its appearance.
 	 * 
-	 * @param from
-	 * @param to
+	 * @param fromId symbol id of the outer class
+	 * @param toId   symbol id of the outer class
 	 */
-	private void addCoupling(final String from, final String to) {
-
-		if (!couplings.containsKey(from)) {
-			couplings.put(from, new HashMap<String, Integer>());
-		}
-
-		final Map<String, Integer> connectionCounts = couplings.get(from);
-
-		if (!connectionCounts.containsKey(to)) {
-			connectionCounts.put(to, 1);
-		} else {
-			int count = connectionCounts.get(to);
-			connectionCounts.put(to, ++count);
-		}
-
-		if (storeVisitor != null) {
-			storeVisitor.add(from);
-			storeVisitor.add(to);
-		}
+	private void addCoupling(final int fromId, final int toId) {
+		accumulator.add(fromId, toId);
 	}
 
 	/**
 	 * All couplings counted will be removed.
 	 */
-	public void clearCouplings() {
+	public synchronized void clearCouplings() {
+		accumulator.clear();
 		couplings.clear();
 	}
 
@@ -202,30 +217,40 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 
 		if (tag == Tag.NOT_PROJECT_PART)
 			return false;
-		// Is package we want to count.
-		if (Configuration.isInWhiteList(fullClassNameOrPackage))
-			return true;
 
-		final String packageName = getPackageNameFromString(fullClassNameOrPackage);
+		return ProjectFilter.getInstance().isProjectPart(fullClassNameOrPackage);
+	}
 
-		final String className = fullClassNameOrPackage.substring(packageName.length(),
-				fullClassNameOrPackage.length());
+	/**
+	 * Check if one of these interned classes or packages is in filter.
+	 * 
+	 * @param fromId symbol id of the class or package name
+	 * @param toId   symbol id of the class or package name
+	 * @param tag
+	 * @return {code true} if passed the filter, otherwise {@code false}
+	 */
+	private static boolean isFiltered(final int fromId, final int toId, final Tag tag) {
 
-		return Configuration.isInWhiteList(packageName)
-				|| CouplingMonitor.getInstance().getRegisteredClasses().contains(className);
+		if (tag == Tag.CACHE)
+			return true;
+		if (tag == Tag.NOT_PROJECT_PART)
+			return false;
+
+		final ProjectFilter filter = ProjectFilter.getInstance();
+		return filter.isProjectPart(fromId) && filter.isProjectPart(toId);
 	}
 
 	@Deprecated
-	public void addFromCache(String from, String to, final Tag tag) {
+	public void addFromCache(final String from, final String to, final Tag tag) {
 
-		from = mapNestedClassToOuter(from);
-		to = mapNestedClassToOuter(to);
+		final int fromId = symbols.getOuter(symbols.intern(from));
+		final int toId = symbols.getOuter(symbols.intern(to));
 
 		// We only want to store necessary connections.
-		if (isFiltered(from, to, tag)) {
-			addCoupling(from, to);
+		if (isFiltered(fromId, toId, tag)) {
+			addCoupling(fromId, toId);
 		} else {
-			logger.logFilteredOut(concatWithArrow(from, to));
+			logger.logFilteredOut(() -> concatWithArrow(symbols.getName(fromId), symbols.getName(toId)));
 		}
 	}
 
@@ -252,12 +277,64 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 	}
 
 	/**
-	 * Get the counted coupling.
+	 * Get the counted coupling. The couplings of all threads are merged and the
+	 * map is built from the primitive coupling store when it is requested, it is
+	 * built again only if couplings were counted in the meantime. It can not be
+	 * modified.
 	 * 
 	 * @return couplings
 	 */
-	public Map<String, Map<String, Integer>> getRegisteredCouplings() {
-		return couplings;
+	public synchronized Map<String, Map<String, Integer>> getRegisteredCouplings() {
+
+		accumulator.drainTo(couplings);
+
+		if (couplingView == null || couplingViewVersion != couplings.getModificationCount()) {
+
+			final List<CountedCoupling> counted = new ArrayList<>(couplings.size());
+			couplings.forEach((from, to, count) -> counted
+					.add(new CountedCoupling(symbols.getName(from), symbols.getName(to), count)));
+
+			// Symbol ids depend on the order the threads interned the names, the names
+			// do not.
+			counted.sort(Comparator.comparing((final CountedCoupling c) -> c.from).thenComparing(c -> c.to));
+
+			final Map<String, Map<String, Integer>> view = new HashMap<>();
+			for (final CountedCoupling c : counted) {
+				view.computeIfAbsent(c.from, k -> new HashMap<>()).put(c.to, c.count);
+
+				if (storeVisitor != null) {
+					storeVisitor.add(c.from);
+					storeVisitor.add(c.to);
+				}
+			}
+			view.replaceAll((from, connectionCounts) -> Collections.unmodifiableMap(connectionCounts));
+
+			couplingView = Collections.unmodifiableMap(view);
+			couplingViewVersion = couplings.getModificationCount();
+		}
+		return couplingView;
+	}
+
+	/**
+	 * Get the counted coupling as graph. It is built straight from the primitive
+	 * coupling store, so it is the same graph as the one of
+	 * {@link #getRegisteredCouplings()}, without building its maps.
+	 * 
+	 * @return graph of the couplings
+	 */
+	public synchronized CouplingGraph getCouplingGraph() {
+		accumulator.drainTo(couplings);
+		return CouplingGraph.of(couplings, symbols);
+	}
+
+	/**
+	 * Get all coupling sources and destinations, if the hook is set.
+	 * 
+	 * @return class or package names, {@code null} if the hook is not set.
+	 */
+	public synchronized Set<String> getStoreVisitor() {
+		getRegisteredCouplings();
+		return storeVisitor;
 	}
 
 	/**
@@ -322,11 +399,28 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 		return fullname;
 	}
 
+	/**
+	 * Logs and counts a sourcecode coupling, that could not be resolved. The
+	 * message is only formatted if it is logged or kept as sample.
+	 * 
+	 * @param classFrom
+	 * @param node      method call or type that failed.
+	 * @param e
+	 */
+	protected void addSourceCodeError(final String classFrom, final Node node, final Throwable e) {
+		final Supplier<String> msg = () -> getErrorMsg(classFrom, node, e);
+		logger.logUnsupported(msg);
+		sourceCodeInfo.countAsError(this, classFrom, e.getClass().getName(), msg);
+	}
+
 	/**
 	 * If hook is set it stores all coupling sources and destinations.
 	 */
-	public void setCouplingHook() {
+	public synchronized void setCouplingHook() {
 		storeVisitor = new HashSet<>();
+
+		// Couplings counted before are part of it as well.
+		couplingView = null;
 	}
 
 	/**
@@ -366,4 +460,20 @@ public abstract class ACoupling implements ICoupling, Comparable<ACoupling> {
 		return concatWithArrow("[class: " + classFrom + ", name: " + name,
 				position + ", error type: " + e.getClass().getName() + "]");
 	}
+
+	/**
+	 * A coupling with its count, used to build the map of all couplings.
+	 */
+	private static class CountedCoupling {
+
+		final String from;
+		final String to;
+		final int count;
+
+		CountedCoupling(final String from, final String to, final int count) {
+			this.from = from;
+			this.to = to;
+			this.count = count;
+		}
+	}
 }
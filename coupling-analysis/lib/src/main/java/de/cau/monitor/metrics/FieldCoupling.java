@@ -16,19 +16,18 @@
 
 package de.cau.monitor.metrics;
 
-import java.util.List;
 import java.util.Set;
 
 import org.apache.bcel.classfile.Field;
 import org.apache.bcel.classfile.JavaClass;
 
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.FieldDeclaration;
-import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.resolution.UnsolvedSymbolException;
 
 import de.cau.monitor.CouplingMonitor;
+import de.cau.sourcecode.SourceClassContext;
+import de.cau.sourcecode.SymbolResolutionCache;
 import de.cau.tools.Tag;
 
 /**
@@ -43,19 +42,23 @@ public class FieldCoupling extends ACoupling {
 
 	@Override
 	public void calculateCoupling(final ClassOrInterfaceDeclaration coi, final String classFrom) {
+		calculateCoupling(SourceClassContext.of(coi, classFrom));
+	}
+
+	@Override
+	public void calculateCoupling(final SourceClassContext context) {
 
 		final CouplingMonitor cm = CouplingMonitor.getInstance();
 		final Set<String> classes = cm.getRegisteredClasses();
+		final String classFrom = context.getClassName();
 
-		final List<FieldDeclaration> fields = coi.getFields();
-
-		for (final FieldDeclaration field : fields) {
-			final Type type = field.findFirst(VariableDeclarator.class).get().getType().getElementType();
+		for (final Type type : context.getFieldTypes()) {
 			if (type.isReferenceType()) {
 
 				try {
 
-					String classTo = type.asReferenceType().resolve().describe();
+					String classTo = SymbolResolutionCache.getInstance()
+							.resolve(type.asReferenceType(), sourceCodeInfo, this).describe();
 
 					// generic to simple name
 					final int idx = classTo.indexOf('<');
@@ -69,11 +72,11 @@ public class FieldCoupling extends ACoupling {
 						super.addSourceCodeCoupling(classFrom, classTo, Tag.NOT_PROJECT_PART);
 					}
 				} catch (final UnsolvedSymbolException e) {
-					logger.logByTag(getErrorMsg(classFrom, type, e), Tag.UNSUPPORTED, sourceCodeInfo, this);
+					addSourceCodeError(classFrom, type, e);
 				} catch (final UnsupportedOperationException e) {
-					logger.logByTag(getErrorMsg(classFrom, type, e), Tag.UNSUPPORTED, sourceCodeInfo, this);
+					addSourceCodeError(classFrom, type, e);
 				} catch (final RuntimeException e) {
-					logger.logByTag(getErrorMsg(classFrom, type, e), Tag.UNSUPPORTED, sourceCodeInfo, this);
+					addSourceCodeError(classFrom, type, e);
 				}
 			} else {
 				super.addSourceCodeCoupling(classFrom, Tag.NOT_PROJECT_PART.toString(), Tag.NOT_PROJECT_PART);
@@ -0,0 +1,34 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor.metrics;
+
+/**
+ * Interface for bytecode metrics that are calculated from the invoke
+ * instructions of methods. Such metrics can share a single walk over the
+ * instructions of a class.
+ *
+ */
+public interface IMethodCallCoupling {
+
+	/**
+	 * Gets the strategy that registers a found method call.
+	 * 
+	 * @return the strategy of the metric.
+	 */
+	public MethodVisitorRegisterStrategy getMethodVisitorStrategy();
+
+}
@@ -16,22 +16,23 @@
 
 package de.cau.monitor.metrics;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.bcel.classfile.Constant;
 import org.apache.bcel.classfile.ConstantClass;
 import org.apache.bcel.classfile.ConstantPool;
 import org.apache.bcel.classfile.JavaClass;
 
-import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
-import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 
+import de.cau.bytecode.visitor.ClassHeader;
 import de.cau.config.Configuration;
+import de.cau.sourcecode.SourceClassContext;
 import de.cau.tools.Tag;
 
 /**
@@ -46,14 +47,17 @@ public class ImportCoupling extends ACoupling {
 
 	@Override
 	public void calculateCoupling(final ClassOrInterfaceDeclaration coi, final String from) {
+		calculateCoupling(SourceClassContext.of(coi, from));
+	}
+
+	@Override
+	public void calculateCoupling(final SourceClassContext context) {
 
+		final String from = context.getClassName();
 		if (isNested(from))
 			return;
 
-		final CompilationUnit cu = coi.findCompilationUnit().get();
-		final NodeList<ImportDeclaration> imports = cu.getImports();
-
-		for (final ImportDeclaration to : imports) {
+		for (final ImportDeclaration to : context.getImports()) {
 
 			final String packageName = getPackageNameFromString(to.getNameAsString());
 
@@ -69,17 +73,27 @@ public class ImportCoupling extends ACoupling {
 
 	@Override
 	public void calculateCoupling(final JavaClass javaClass) {
+		addClassDependencies(javaClass.getClassName(), getClassDependencies(javaClass));
+	}
 
-		final Set<String> dependentClasses = getClassDependencies(javaClass);
-		final String className = javaClass.getClassName();
+	/**
+	 * Calculates the coupling from the constant pool of a class file only. This is
+	 * used if imports are the only bytecode metric, then class files do not need
+	 * to be parsed completely.
+	 * 
+	 * @param header of a class file
+	 */
+	public void calculateCoupling(final ClassHeader header) {
+		addClassDependencies(header.getClassName(),
+				getClassDependencies(header.getClassName(), header.getConstantClassNames()));
+	}
 
+	private void addClassDependencies(final String className, final Set<String> dependentClasses) {
 		for (final String dc : dependentClasses) {
 			super.addByteCodeCoupling(className, dc, Tag.RESOLVED);
 		}
 	}
 
-	private final Pattern classArrayPattern = Pattern.compile("\\[+L(.*);");
-
 	/**
 	 * Finding all class dependencies without self connections.
 	 * 
@@ -89,33 +103,62 @@ public class ImportCoupling extends ACoupling {
 	public Set<String> getClassDependencies(final JavaClass javaClass) {
 
 		final ConstantPool constanatPool = javaClass.getConstantPool();
-		final Set<String> classes = new HashSet<>();
+		final List<String> constantNames = new ArrayList<>();
 
 		for (final Constant constant : constanatPool.getConstantPool()) {
 
 			if (constant instanceof ConstantClass) {
-
 				// Name of dependent java Class.
-				String constantName = (String) ((ConstantClass) constant).getConstantValue(constanatPool);
-				constantName = toPackageNotation(constantName);
-
-				final String classFrom = javaClass.getClassName();
-
-				// Ignore self-dependencies
-				if (!classFrom.equals(constantName)) {
-
-					// Handle arrays
-					final Matcher matcher = classArrayPattern.matcher(constantName);
-					String classTo;
-					if (matcher.matches()) {
-						classTo = matcher.group(1);
-					} else {
-						classTo = constantName;
-					}
-					classes.add(classTo);
-				}
+				constantNames.add((String) ((ConstantClass) constant).getConstantValue(constanatPool));
+			}
+		}
+		return getClassDependencies(javaClass.getClassName(), constantNames);
+	}
+
+	/**
+	 * Finding all class dependencies without self connections.
+	 * 
+	 * @param classFrom     name of the class
+	 * @param constantNames names of all class constants of the class in 'path
+	 *                      notation'
+	 * @return a Set of all class dependencies
+	 */
+	public Set<String> getClassDependencies(final String classFrom, final Collection<String> constantNames) {
+
+		final Set<String> classes = new HashSet<>();
+
+		for (final String name : constantNames) {
+
+			final String constantName = toPackageNotation(name);
+
+			// Ignore self-dependencies
+			if (!classFrom.equals(constantName)) {
+				classes.add(toElementClassName(constantName));
 			}
 		}
 		return classes;
 	}
+
+	/**
+	 * Handle arrays: The class name of an array of objects is the descriptor of
+	 * the array (e.g. [[La.b.ClassName;) which is mapped to its element class.
+	 * Arrays of primitive types stay as they are.
+	 * 
+	 * @param constantName
+	 * @return the element class name for arrays, otherwise the given name.
+	 */
+	private static String toElementClassName(final String constantName) {
+
+		if (constantName.isEmpty() || constantName.charAt(0) != '[')
+			return constantName;
+
+		int index = 1;
+		while (index < constantName.length() && constantName.charAt(index) == '[') {
+			index++;
+		}
+
+		if (index < constantName.length() && constantName.charAt(index) == 'L' && constantName.endsWith(";"))
+			return constantName.substring(index + 1, constantName.length() - 1);
+		return constantName;
+	}
 }
@@ -31,6 +31,7 @@ import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 
 import de.cau.monitor.CouplingMonitor;
+import de.cau.sourcecode.SourceClassContext;
 import de.cau.tools.Tag;
 
 /**
@@ -52,11 +53,20 @@ public class InheritanceCoupling extends ACoupling {
 	 */
 	@Override
 	public void calculateCoupling(final ClassOrInterfaceDeclaration coi, final String classFrom) {
+		calculateCoupling(SourceClassContext.of(coi, classFrom));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void calculateCoupling(final SourceClassContext context) {
+		final String classFrom = context.getClassName();
 		// Check for super classes.
-		final NodeList<ClassOrInterfaceType> superClass = coi.getExtendedTypes();
+		final NodeList<ClassOrInterfaceType> superClass = context.getExtendedTypes();
 		// All classes we want to check.
 		final Set<String> fullNames = CouplingMonitor.getInstance().getRegisteredClasses();
-		final CompilationUnit cu = coi.findCompilationUnit().get();
+		final CompilationUnit cu = context.getCompilationUnit();
 
 		// If class has super class.
 		if (!superClass.isEmpty()) {
@@ -73,7 +83,7 @@ public class InheritanceCoupling extends ACoupling {
 		}
 
 		// Check for interfaces.
-		final NodeList<ClassOrInterfaceType> interfaces = coi.getImplementedTypes();
+		final NodeList<ClassOrInterfaceType> interfaces = context.getImplementedTypes();
 		if (!interfaces.isEmpty()) {
 
 			for (final ClassOrInterfaceType iface : interfaces) {
@@ -152,26 +162,19 @@ public class InheritanceCoupling extends ACoupling {
 	public void calculateCoupling(final JavaClass javaClass) {
 
 		final String classFrom = javaClass.getClassName();
-		try {
 
-			final JavaClass superClass = javaClass.getSuperClass();
-			final String superClassName = superClass.getClassName();
+		// The direct super types are part of the class file, nothing has to be
+		// looked up.
+		final String superClassName = javaClass.getSuperclassName();
 
-			// We are interested in simple inheritance only, if it is Object inheritance we
-			// do not care either
-			if (!superClassName.equals("java.lang.Object")) {
-				super.addByteCodeCoupling(classFrom, superClassName, Tag.RESOLVED);
-			}
-
-			final String[] ifaces = javaClass.getInterfaceNames();
-
-			for (final String classTo : ifaces) {
-				super.addByteCodeCoupling(classFrom, classTo, Tag.RESOLVED);
-			}
+		// We are interested in simple inheritance only, if it is Object inheritance we
+		// do not care either
+		if (!superClassName.equals("java.lang.Object")) {
+			super.addByteCodeCoupling(classFrom, superClassName, Tag.RESOLVED);
+		}
 
-		} catch (final ClassNotFoundException e) {
-			logger.logByTag(getErrorMsg(classFrom, "unknown", e), Tag.UNSUPPORTED,
-					byteCodeInfo, this);
+		for (final String classTo : javaClass.getInterfaceNames()) {
+			super.addByteCodeCoupling(classFrom, classTo, Tag.RESOLVED);
 		}
 	}
 }
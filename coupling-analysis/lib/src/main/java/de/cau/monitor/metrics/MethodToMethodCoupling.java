@@ -18,7 +18,6 @@ package de.cau.monitor.metrics;
 
 import org.apache.bcel.classfile.JavaClass;
 import org.apache.bcel.classfile.Method;
-import org.apache.bcel.generic.ConstantPoolGen;
 
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.expr.MethodCallExpr;
@@ -27,13 +26,15 @@ import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 
 import de.cau.bytecode.visitor.MethodVisitor;
 import de.cau.monitor.CouplingMonitor;
+import de.cau.sourcecode.SourceClassContext;
+import de.cau.sourcecode.SymbolResolutionCache;
 import de.cau.tools.Tag;
 
 /**
  * Can calculate coupling of methods for source and bytecode.
  * 
  */
-public class MethodToMethodCoupling extends ACoupling {
+public class MethodToMethodCoupling extends ACoupling implements IMethodCallCoupling {
 
 	public MethodToMethodCoupling() {
 		super(CouplingTag.METHOD_TO_METHOD);
@@ -41,17 +42,24 @@ public class MethodToMethodCoupling extends ACoupling {
 
 	@Override
 	public void calculateCoupling(final ClassOrInterfaceDeclaration coi, final String classFrom) {
+		calculateCoupling(SourceClassContext.of(coi, classFrom));
+	}
+
+	@Override
+	public void calculateCoupling(final SourceClassContext context) {
 
+		final String classFrom = context.getClassName();
 		if (isNested(classFrom))
 			return;
 
-		for (final MethodCallExpr mce : coi.findAll(MethodCallExpr.class)) {
+		for (final MethodCallExpr mce : context.getMethodCalls()) {
 
 			final String methodName = mce.getNameAsString();
 			try {
 
 				// At this point the SymobolSolver is called.
-				final ResolvedMethodDeclaration rmd = mce.resolve();
+				final ResolvedMethodDeclaration rmd = SymbolResolutionCache.getInstance().resolve(mce,
+						sourceCodeInfo, this);
 				String name = rmd.getQualifiedName();
 				// ...successfully resolved...
 
@@ -72,18 +80,13 @@ public class MethodToMethodCoupling extends ACoupling {
 					super.addSourceCodeCoupling(classFrom, name, Tag.NOT_PROJECT_PART);
 				}
 			} catch (final UnsolvedSymbolException e) {
-				logger.logByTag(getErrorMsg(classFrom, mce, e), Tag.UNSUPPORTED,
-						sourceCodeInfo, this);
+				addSourceCodeError(classFrom, mce, e);
 			} catch (final UnsupportedOperationException e) {
-				logger.logByTag(getErrorMsg(classFrom, mce, e), Tag.UNSUPPORTED,
-						sourceCodeInfo, this);
+				addSourceCodeError(classFrom, mce, e);
 			} catch (final java.lang.RuntimeException e) {
-				logger.logByTag(getErrorMsg(classFrom, mce, e), Tag.UNSUPPORTED, sourceCodeInfo,
-						this);
+				addSourceCodeError(classFrom, mce, e);
 			} catch (final StackOverflowError e) {
-				logger.logByTag(getErrorMsg(classFrom, mce, e), Tag.UNSUPPORTED,
-						sourceCodeInfo,
-						this);
+				addSourceCodeError(classFrom, mce, e);
 			}
 		}
 	}
@@ -120,16 +123,19 @@ public class MethodToMethodCoupling extends ACoupling {
 		addByteCodeCoupling(classFrom, classTo, Tag.NOT_PROJECT_PART);
 	};
 
+	@Override
+	public MethodVisitorRegisterStrategy getMethodVisitorStrategy() {
+		return strategy;
+	}
+
 	@Override
 	public void calculateCoupling(final JavaClass javaClass) {
 
-		final ConstantPoolGen constantPoolGen = new ConstantPoolGen(javaClass.getConstantPool());
+		final MethodVisitor mv = new MethodVisitor(javaClass.getClassName(), javaClass.getConstantPool(), strategy);
 		final Method[] methodDeclarations = javaClass.getMethods();
 
 		for (final Method md : methodDeclarations) {
-
-			final MethodVisitor mv = new MethodVisitor(md, javaClass.getClassName(), constantPoolGen, strategy);
-			mv.visitMethod();
+			mv.visitMethod(md);
 		}
 	}
 }
@@ -18,15 +18,15 @@ package de.cau.monitor.metrics;
 
 import org.apache.bcel.classfile.JavaClass;
 import org.apache.bcel.classfile.Method;
-import org.apache.bcel.generic.ConstantPoolGen;
 
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.resolution.UnsolvedSymbolException;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 
 import de.cau.bytecode.visitor.MethodVisitor;
 import de.cau.config.Configuration;
+import de.cau.sourcecode.SourceClassContext;
+import de.cau.sourcecode.SymbolResolutionCache;
 import de.cau.tools.Tag;
 
 /**
@@ -34,7 +34,7 @@ import de.cau.tools.Tag;
  * method-to-method coupling)
  * 
  */
-public class PackageCoupling extends ACoupling {
+public class PackageCoupling extends ACoupling implements IMethodCallCoupling {
 
 	public PackageCoupling() {
 		super(CouplingTag.PACKAGE);
@@ -43,17 +43,24 @@ public class PackageCoupling extends ACoupling {
 
 	@Override
 	public void calculateCoupling(final ClassOrInterfaceDeclaration coi, final String classFrom) {
+		calculateCoupling(SourceClassContext.of(coi, classFrom));
+	}
+
+	@Override
+	public void calculateCoupling(final SourceClassContext context) {
 
+		final String classFrom = context.getClassName();
 		if (isNested(classFrom))
 			return;
 
-		coi.findAll(MethodCallExpr.class).forEach(mce -> {
+		context.getMethodCalls().forEach(mce -> {
 
 			final String packageNameFrom = getPackageNameFromString(classFrom);
 
 			try {
 
-				final ResolvedMethodDeclaration rmd = mce.resolve();
+				final ResolvedMethodDeclaration rmd = SymbolResolutionCache.getInstance().resolve(mce,
+						sourceCodeInfo, this);
 
 				final String methodName = mce.getNameAsString();
 				String name = rmd.getQualifiedName();
@@ -76,15 +83,15 @@ public class PackageCoupling extends ACoupling {
 					}
 				}
 			} catch (final UnsolvedSymbolException e) {
-				logger.logByTag(getErrorMsg(classFrom, mce, e), Tag.UNSUPPORTED, sourceCodeInfo, this);
+				addSourceCodeError(classFrom, mce, e);
 			} catch (final UnsupportedOperationException e) {
-				logger.logByTag(getErrorMsg(classFrom, mce, e), Tag.UNSUPPORTED, sourceCodeInfo, this);
+				addSourceCodeError(classFrom, mce, e);
 			} catch (final RuntimeException e) {
 				// Sometimes the symbol solver can not resolve the type and raises a runtime
 				// exception
-				logger.logByTag(getErrorMsg(classFrom, mce, e), Tag.UNSUPPORTED, sourceCodeInfo, this);
+				addSourceCodeError(classFrom, mce, e);
 			} catch (final StackOverflowError e) {
-				logger.logByTag(getErrorMsg(classFrom, mce, e), Tag.UNSUPPORTED, sourceCodeInfo, this);
+				addSourceCodeError(classFrom, mce, e);
 			}
 		});
 	}
@@ -105,16 +112,19 @@ public class PackageCoupling extends ACoupling {
 		super.addByteCodeCoupling(packageNameFrom, packageNameTo, Tag.NOT_PROJECT_PART);
 	};
 
+	@Override
+	public MethodVisitorRegisterStrategy getMethodVisitorStrategy() {
+		return strategy;
+	}
+
 	@Override
 	public void calculateCoupling(final JavaClass javaClass) {
 
-		final ConstantPoolGen constantPoolGen = new ConstantPoolGen(javaClass.getConstantPool());
+		final MethodVisitor mv = new MethodVisitor(javaClass.getClassName(), javaClass.getConstantPool(), strategy);
 		final Method[] methodDeclarations = javaClass.getMethods();
 
 		for (final Method md : methodDeclarations) {
-
-			final MethodVisitor mv = new MethodVisitor(md, javaClass.getClassName(), constantPoolGen, strategy);
-			mv.visitMethod();
+			mv.visitMethod(md);
 		}
 	}
 }
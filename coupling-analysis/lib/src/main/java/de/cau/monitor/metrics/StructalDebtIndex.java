@@ -17,248 +17,221 @@
 package de.cau.monitor.metrics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.Stack;
+import java.util.StringJoiner;
 
 import org.apache.bcel.classfile.JavaClass;
 
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 
+import de.cau.config.Configuration;
+import de.cau.monitor.graph.ComponentDebt;
+import de.cau.monitor.graph.CouplingGraph;
+import de.cau.monitor.graph.CycleEnumerator;
+import de.cau.monitor.graph.IncrementalCycleTracker;
+import de.cau.tools.Logger;
+
 /**
- * This class is used for calculating the SDI.
+ * This class is used for calculating the SDI of the coupling configured by
+ * {@link Configuration#sdiCoupling}. For the package coupling every elementary
+ * cycle adds {@value #CYCLE_DEBT} plus the counts of its couplings to the
+ * index. Class couplings have far too many cycles to list them, their index is
+ * the debt of their strongly connected components, see {@link ComponentDebt}.
  *
  */
 public class StructalDebtIndex extends ACoupling {
 
-	private PackageCoupling packACoupling;
+	private static final int CYCLE_DEBT = 10;
+
+	private ACoupling coupling;
+	private final Map<String, Map<String, Integer>> results;
 
 	public StructalDebtIndex() {
 		super(CouplingTag.STRUCTUAL_DEBT_INDEX);
+		this.results = new HashMap<>();
 	}
 
-	public void setCoupling(final PackageCoupling packACoupling) {
-		this.packACoupling = packACoupling;
+	/**
+	 * Sets the coupling, whose index is calculated.
+	 * 
+	 * @param coupling
+	 */
+	public void setCoupling(final ACoupling coupling) {
+		this.coupling = coupling;
 	}
 
 	@Override
 	public void calculateCoupling(final ClassOrInterfaceDeclaration __, final String ___) {
+		calculateSourceCodeIndex();
+	}
 
-		final Map<String, Map<String, Integer>> mapmap = packACoupling.getRegisteredCouplings();
-		final List<Circle> cycles = findAllCircles(mapmap, packACoupling.storeVisitor);
+	/**
+	 * Calculates the SDI of the sourcecode coupling. This needs to be done
+	 * once, after all classes were visited.
+	 */
+	public void calculateSourceCodeIndex() {
 
-		sourceCodeInfo.override(packACoupling, this);
+		final Map<String, Integer> res = calculateIndex(coupling);
+		sourceCodeInfo.override(coupling, this);
 
-		final int sdi = getstructualDebtIndexFromCycles(cycles, mapmap);
-		final Map<String, Integer> res = new HashMap<>();
-		res.put("SCORE", sdi);
-		res.put("CYCLES", cycles.size());
-		res.put(cycles.toString(), 1);
+		results.put(getNameTag().toString(), res);
+	}
+
+	@Override
+	public void calculateCoupling(final JavaClass __) {
+		calculateByteCodeIndex();
+	}
+
+	/**
+	 * Calculates the SDI of the bytecode coupling. This needs to be done
+	 * once, after all classes were visited.
+	 */
+	public void calculateByteCodeIndex() {
 
-		getRegisteredCouplings().put(getNameTag().toString(), res);
+		final Map<String, Integer> res = calculateIndex(coupling);
+		byteCodeInfo.override(coupling, this);
+
+		results.put(getNameTag().toString(), res);
 	}
 
 	/**
-	 * Calculate the structural debt index score from given cycles.
+	 * Calculate the structural debt index of the given coupling. The cycles of a
+	 * package coupling are listed, any other coupling gets the index of its
+	 * components.
 	 * 
-	 * @param cycles
-	 * @param graph
-	 * @return
+	 * @param coupling
+	 * @return the score and the cycles or components.
 	 */
-	private int getstructualDebtIndexFromCycles(final List<Circle> cycles,
-			final Map<String, Map<String, Integer>> graph) {
+	public static Map<String, Integer> calculateIndex(final ACoupling coupling) {
 
-		int res = 0;
+		return coupling.getNameTag() == CouplingTag.PACKAGE ? calculateCycleIndex(coupling.getCouplingGraph())
+				: calculateComponentIndex(coupling.getCouplingGraph());
+	}
 
-		for (final Circle circle : cycles) {
-			res += 10;
+	/**
+	 * Calculate the structural debt index score from all elementary cycles of the
+	 * given graph. The search for cycles is bounded by
+	 * {@link Configuration#sdiMaxCycles} and {@link Configuration#sdiTimeoutMillis},
+	 * if it stopped early the result is marked as truncated.
+	 * 
+	 * @param graph
+	 * @return the score, the number of cycles and the cycles.
+	 */
+	public static Map<String, Integer> calculateCycleIndex(final CouplingGraph graph) {
 
-			for (int i = 0; i < circle.vertices.size() - 1; i++) {
-				final String v = circle.vertices.get(i);
+		final CycleEnumerator enumerator = new CycleEnumerator(graph, Configuration.sdiMaxCycles,
+				Configuration.sdiTimeoutMillis);
+		final List<int[]> cycles = enumerator.findCycles();
 
-				final Map<String, Integer> neighbors = graph.get(v);
+		long sdi = 0;
+		final List<String> circles = new ArrayList<>(cycles.size());
 
-				if (neighbors != null) {
-					for (final String x : neighbors.keySet()) {
-						final int y = neighbors.get(x);
+		for (final int[] cycle : cycles) {
+			sdi += CYCLE_DEBT;
 
-						// connection to next vertex
-						if (x == circle.vertices.get(i + 1)) {
-							res += y;
-						}
-					}
-				}
+			final StringBuilder circle = new StringBuilder();
+			for (int i = 0; i < cycle.length; i++) {
+				sdi += graph.getWeight(cycle[i], cycle[(i + 1) % cycle.length]);
+				circle.append(graph.getName(cycle[i])).append(" -> ");
 			}
+			circles.add(circle.append(graph.getName(cycle[0])).toString());
 		}
-		return res;
-	}
 
-	@Override
-	public void calculateCoupling(final JavaClass __) {
-
-		final Map<String, Map<String, Integer>> mapmap = packACoupling.getRegisteredCouplings();
-		final List<Circle> cycles = findAllCircles(mapmap, packACoupling.storeVisitor);
-
-		final int sdi = getstructualDebtIndexFromCycles(cycles, mapmap);
 		final Map<String, Integer> res = new HashMap<>();
-		byteCodeInfo.override(packACoupling, this);
-		res.put("SCORE", sdi);
+		res.put("SCORE", (int) Math.min(Integer.MAX_VALUE, sdi));
 		res.put("CYCLES", cycles.size());
-		res.put(cycles.toString(), 1);
-
-		getRegisteredCouplings().put(getNameTag().toString(), res);
+		res.put(circles.toString(), 1);
 
+		if (!enumerator.isComplete()) {
+			res.put("TRUNCATED", 1);
+			Logger.getInstance().logWarning("The SDI search stopped after " + cycles.size() + " cycles, the score is too low.");
+		}
+		return res;
 	}
 
 	/**
-	 * Detect all circles in given graph. Therefore DFS is used. While traverse the
-	 * graph: If already visited vertex found in circle, search in stack for first
-	 * occurrence of this vertex (start of the circle). If a vertex does not have
-	 * any neighbors anymore and not already count as part of a circle, this vertex
-	 * can not be part of a circle.
+	 * Calculate the structural debt index score from the strongly connected
+	 * components of the given graph. The score is the sum of the debts of all
+	 * cyclic components, every cyclic component is listed with its debt. This
+	 * takes linear time, no matter how many cycles there are.
 	 * 
 	 * @param graph
-	 * @param vs
-	 * @return all circles of the graph.
+	 * @return the score, the number of cyclic components and the components.
 	 */
-	private List<Circle> findAllCircles(final Map<String, Map<String, Integer>> graph, final Set<String> vs) {
-
-		final Stack<String> stack = new Stack<>();
-		final List<Circle> circles = new LinkedList<>();
-
-		final Set<String> verticies = vs;
-		final String[] vArray = new String[verticies.size()];
-		final Map<String, Integer> toIdx = new HashMap<>(vArray.length);
+	public static Map<String, Integer> calculateComponentIndex(final CouplingGraph graph) {
 
-		int idx = 0;
-		for (final String v : vs) {
-			vArray[idx] = v;
-			toIdx.put(v, idx);
-			idx++;
+		final ComponentDebt debt = new ComponentDebt(graph);
+		final int count = debt.getComponentCount();
 
+		// Members of every component, in the order of the vertices.
+		final int[] offsets = new int[count + 1];
+		for (int v = 0; v < graph.size(); v++) {
+			offsets[debt.getComponent(v) + 1]++;
 		}
-		verticies.toArray(vArray);
-		final Status[] states = new Status[vArray.length];
-
-		// init
-		for (int i = 0; i < states.length; i++) {
-			states[i] = Status.UNVISITED;
+		for (int c = 0; c < count; c++) {
+			offsets[c + 1] += offsets[c];
+		}
+		final int[] members = new int[graph.size()];
+		final int[] next = Arrays.copyOf(offsets, count);
+		for (int v = 0; v < graph.size(); v++) {
+			members[next[debt.getComponent(v)]++] = v;
 		}
 
-		// fresh vertex, if the graph is not connected this is helpful
-		for (String vertex : vArray) {
-
-			stack.push(vertex);
-
-			// new entry point to find circles
-			if (states[toIdx.get(vertex)] == Status.UNVISITED) {
-
-				while (!stack.isEmpty()) {
-
-					// find next neighbor
-					String neighbor = null;
-					final Map<String, Integer> neighborMap = graph.get(vertex);
-
-					if (neighborMap != null) {
-						final Set<String> neighborSet = neighborMap.keySet();
-						for (final String n : neighborSet) {
-
-							// cirlce found
-							if (states[toIdx.get(n)] == Status.VISITED) {
-								final Circle circle = getCirlce(stack, n);
-								circles.add(circle);
-
-								// check for next neighbor
-							} else if (states[toIdx.get(n)] == Status.UNVISITED) {
-								neighbor = n;
-							}
-						}
-					}
-
-					// neighbor
-					if (neighbor != null) {
-
-						states[toIdx.get(neighbor)] = Status.VISITED;
-						stack.push(neighbor);
-						vertex = neighbor;
+		long sdi = 0;
+		int cyclicComponents = 0;
+		final Map<String, Integer> res = new HashMap<>();
 
-						// no neighbor
-					} else {
+		for (int c = 0; c < count; c++) {
+			if (!debt.isCyclic(c))
+				continue;
 
-						states[toIdx.get(vertex)] = Status.FINNISHED;
+			final long componentDebt = debt.getDebt(c, CYCLE_DEBT);
+			sdi += componentDebt;
+			cyclicComponents++;
 
-						// find new entry point
-						while (!stack.isEmpty()) {
-							vertex = stack.pop();
-							if (states[toIdx.get(vertex)] != Status.FINNISHED) {
-								stack.push(vertex);
-								break;
-							}
-						}
-					}
-				}
+			final StringJoiner component = new StringJoiner(", ", "[", "]");
+			for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+				component.add(graph.getName(members[i]));
 			}
+			res.put(component.toString(), (int) Math.min(Integer.MAX_VALUE, componentDebt));
 		}
-		return circles;
+
+		res.put("SCORE", (int) Math.min(Integer.MAX_VALUE, sdi));
+		res.put("CYCLIC_COMPONENTS", cyclicComponents);
+		return res;
 	}
 
 	/**
-	 * Building the circle by popping the stack till the starting point of the
-	 * circle is found.
+	 * Creates a tracker of the component debt of the coupling. It can be updated
+	 * coupling by coupling, e.g. to see what the index would be without a
+	 * coupling, and its score is the one of
+	 * {@link #calculateComponentIndex(CouplingGraph)}. For the package coupling
+	 * this is not the reported score, which is the cycle based one of
+	 * {@link #calculateCycleIndex(CouplingGraph)}.
 	 * 
-	 * @param stack
-	 * @param n
-	 * @return
+	 * @return the tracker
 	 */
-	private Circle getCirlce(final Stack<String> stack, final String n) {
-
-		final List<String> list = new LinkedList<>();
-		String next;
-
-		do {
-			next = stack.pop();
-			list.add(0, next);
-
-		} while (!next.equals(n));
-
-		for (final String string : list) {
-			stack.push(string);
-		}
-
-		return new Circle(list);
-	}
-
-	private enum Status {
-		UNVISITED, VISITED, FINNISHED;
+	public IncrementalCycleTracker createTracker() {
+		return IncrementalCycleTracker.of(coupling.getCouplingGraph(), CYCLE_DEBT);
 	}
 
 	/**
-	 * A Circle is a path of vertices.
-	 *
+	 * Get the calculated index. The SDI does not count couplings, it stores its
+	 * score and cycles by its own name tag.
+	 * 
+	 * @return the index
 	 */
-	private class Circle {
-
-		List<String> vertices;
-
-		public Circle(final List<String> path) {
-			vertices = new ArrayList<>(path.size());
-
-			vertices.addAll(path);
-
-		}
-
-		@Override
-		public String toString() {
-			String str = "";
-
-			for (final String v : vertices) {
-				str += v + " -> ";
-			}
-			return str + vertices.get(0);
-		}
+	@Override
+	public Map<String, Map<String, Integer>> getRegisteredCouplings() {
+		return results;
+	}
 
+	@Override
+	public void clearCouplings() {
+		super.clearCouplings();
+		results.clear();
 	}
 }
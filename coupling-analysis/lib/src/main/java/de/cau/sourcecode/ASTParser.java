@@ -17,28 +17,52 @@
 package de.cau.sourcecode;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
 import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 
+import de.cau.config.Configuration;
 import de.cau.config.DirectoryTool;
+import de.cau.monitor.CouplingMonitor;
 import de.cau.tools.FunctionHelper;
 import de.cau.tools.Logger;
 
 public class ASTParser {
 
+	private static final String JAR_INDEX_FILE = "external-libraries.index";
+
+	// Number of project files the type solver keeps parsed while streaming.
+	private static final int STREAMING_TYPE_SOLVER_CACHE_SIZE = 512;
+
 	Logger logger;
+	private ThreadLocal<JavaParser> parsers;
+	private PreloadedTypeSolver projectTypeSolver;
+	private ProjectByteCodeTypeSolver byteCodeTypeSolver;
 
 	public ASTParser() {
 		this.logger = Logger.getInstance();
@@ -54,6 +78,39 @@ public class ASTParser {
 	 */
 	public List<Optional<CompilationUnit>> getAllCompilationUnits() {
 
+		final List<String> sourceList = getAllSourceFiles();
+
+		setupSymbolSolver(false);
+
+		logger.logSeparation();
+		logger.log("Parsing java files to Abstract Syntax Tree");
+		logger.logSeparation();
+
+		// Parse all files.
+		final Function<String, Optional<CompilationUnit>> parseFunction = FunctionHelper
+				.handleExceptionFunctionWithWrapper(this::parse);
+
+		final List<Optional<CompilationUnit>> cus = Configuration.workerThreads > 1
+				? parseInParallel(sourceList, parseFunction, Configuration.workerThreads)
+				: sourceList
+						.stream()
+						.map(parseFunction)
+						.collect(Collectors.toList());
+		logger.logSeparation();
+
+		// Project types are solved from the parsed units, so no file is parsed twice.
+		projectTypeSolver.addAll(cus);
+
+		return cus;
+	}
+
+	/**
+	 * Get all java files of predefined sourcecode root.
+	 * 
+	 * @return paths of all java files
+	 */
+	public List<String> getAllSourceFiles() {
+
 		logger.log("...Collecting source files of given root: " + DirectoryTool.getSourceCodeInputRoot());
 		// Get the java files of given root.
 		final String[] patterns = { "**/*.java" };
@@ -63,31 +120,126 @@ public class ASTParser {
 		logger.logAll(sourceList);
 		logger.logSeparation();
 
-		setupSymbolSolver();
+		return sourceList;
+	}
+
+	/**
+	 * Parse the given java files one by one and hand each {@link CompilationUnit}
+	 * to the consumer. No unit is kept, after the consumer returned it can be
+	 * garbage collected together with all symbol solver caches of it. Files
+	 * that could not be parsed correctly are skipped.
+	 * 
+	 * @param sourceList paths of the java files
+	 * @param consumer   analyses a single unit
+	 */
+	public void parseEach(final List<String> sourceList, final Consumer<CompilationUnit> consumer) {
+
+		setupSymbolSolver(true);
 
 		logger.logSeparation();
-		logger.log("Parsing java files to Abstract Syntax Tree");
+		logger.log("Parsing and analysing java files one by one");
 		logger.logSeparation();
 
-		// Parse all files.
-		final List<Optional<CompilationUnit>> cus = sourceList
-				.stream()
-				.map(FunctionHelper
-						.handleExceptionFunctionWithWrapper(source -> StaticJavaParser.parse(new File(source))))
-				.collect(Collectors.toList());
+		final Function<String, Optional<CompilationUnit>> parseFunction = FunctionHelper
+				.handleExceptionFunctionWithWrapper(this::parse);
+
+		for (final String source : sourceList) {
+			parseFunction.apply(source).ifPresent(consumer);
+
+			// The facade caches resolved types by their AST nodes.
+			JavaParserFacade.clearInstances();
+		}
+		if (byteCodeTypeSolver != null) {
+			byteCodeTypeSolver.close();
+		}
 		logger.logSeparation();
+	}
 
-		return cus;
+	/**
+	 * Parse a single java file with the parser of the current thread.
+	 * 
+	 * @param source path of the java file
+	 * @return the compilation unit
+	 * @throws FileNotFoundException if the file does not exist.
+	 * @throws ParseProblemException if the file could not be parsed correctly.
+	 */
+	private CompilationUnit parse(final String source) throws FileNotFoundException {
+
+		final ParseResult<CompilationUnit> result = parsers.get().parse(new File(source));
+
+		if (result.isSuccessful() && result.getResult().isPresent())
+			return result.getResult().get();
+		throw new ParseProblemException(result.getProblems());
+	}
+
+	/**
+	 * Parse all java files with a pool of worker threads. The order of the
+	 * returned units is the order of the given files.
+	 * 
+	 * @param sourceList    paths of all java files
+	 * @param parseFunction
+	 * @param threads       number of workers
+	 * @return list of {@link CompilationUnit} units
+	 */
+	private List<Optional<CompilationUnit>> parseInParallel(final List<String> sourceList,
+			final Function<String, Optional<CompilationUnit>> parseFunction, final int threads) {
+
+		final ExecutorService workers = Executors.newFixedThreadPool(threads);
+
+		try {
+			final List<Future<Optional<CompilationUnit>>> tasks = new ArrayList<>(sourceList.size());
+			for (final String source : sourceList) {
+				tasks.add(workers.submit(() -> parseFunction.apply(source)));
+			}
+
+			final List<Optional<CompilationUnit>> cus = new ArrayList<>(sourceList.size());
+			for (final Future<Optional<CompilationUnit>> task : tasks) {
+				cus.add(task.get());
+			}
+			return cus;
+
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Parsing java files was interrupted!", e);
+		} catch (final ExecutionException e) {
+			throw new IllegalStateException("Parsing java files failed!", e.getCause());
+		} finally {
+			workers.shutdownNow();
+		}
 	}
 
 	/**
-	 * Setup the symbol solvers like {@link JarTypeSolver},
-	 * {@link ReflectionTypeSolver} and {@link JavaParserTypeSolver}.
+	 * Setup the symbol solvers like {@link LazyJarTypeSolver},
+	 * {@link ReflectionTypeSolver} and {@link PreloadedTypeSolver}. All parsers
+	 * share the same symbol solver. The {@link PreloadedTypeSolver} is filled
+	 * after parsing. While streaming, project types are solved from the class
+	 * files of the bytecode analysis by a {@link ProjectByteCodeTypeSolver} or
+	 * parsed on demand by a {@link JavaParserTypeSolver} with a limited cache
+	 * instead and the parsers do not attribute comments.
+	 * 
+	 * @param isStreaming {@code true} if units are not kept after their analysis.
 	 */
-	private void setupSymbolSolver() {
+	private void setupSymbolSolver(final boolean isStreaming) {
 
 		final List<TypeSolver> parseTypeSolvers = new ArrayList<>();
-		parseTypeSolvers.add(new JavaParserTypeSolver(DirectoryTool.getSourceCodeInputRoot()));
+		byteCodeTypeSolver = null;
+
+		if (isStreaming) {
+
+			// Project classes read by the bytecode analysis are solved from their class
+			// files, before their java files are parsed again.
+			final CouplingMonitor cm = CouplingMonitor.getInstance();
+			final Map<String, String> classFiles = cm.getClassFiles();
+			if (!classFiles.isEmpty()) {
+				byteCodeTypeSolver = new ProjectByteCodeTypeSolver(classFiles, cm.getClassHierarchy());
+				parseTypeSolvers.add(byteCodeTypeSolver);
+			}
+			parseTypeSolvers.add(new JavaParserTypeSolver(Path.of(DirectoryTool.getSourceCodeInputRoot()),
+					createParserConfiguration(true), STREAMING_TYPE_SOLVER_CACHE_SIZE));
+		} else {
+			projectTypeSolver = new PreloadedTypeSolver();
+			parseTypeSolvers.add(projectTypeSolver);
+		}
 
 		// Add the ReflectionTypeSolver for resolve internal connections of java
 		// in-build-functions.
@@ -99,15 +251,16 @@ public class ASTParser {
 			final List<String> libSources = Arrays
 					.asList(DirectoryTool.filesScannedInDirectory(libDir, new String[] { "**/*.jar" }));
 
-			libSources
-					.stream()
-					// Create and collect JarType Solvers form given libraries and map to the
-					// corresponding library name
-					.map(FunctionHelper.handleExceptionFunction(lib -> {
-						parseTypeSolvers.add(new JarTypeSolver(lib));
-						return lib.substring(lib.lastIndexOf("/") + 1, lib.length());
-					}))
-					.collect(Collectors.toList());
+			// The jars are only indexed here, they are loaded when they are needed. The
+			// index is kept between runs, unreadable jars are skipped.
+			final JarIndex jarIndex = JarIndex.load(Path.of(DirectoryTool.getOutputRoot(), JAR_INDEX_FILE));
+			parseTypeSolvers.add(new LazyJarTypeSolver(libSources, jarIndex));
+
+			try {
+				jarIndex.save(libSources);
+			} catch (final IOException e) {
+				e.printStackTrace();
+			}
 
 			logger.log("External libraries found:");
 			logger.logSeparation();
@@ -119,5 +272,20 @@ public class ASTParser {
 		final TypeSolver typeSolver = new CombinedTypeSolver(parseTypeSolvers);
 		final JavaSymbolSolver symSolv = new JavaSymbolSolver(typeSolver);
 		StaticJavaParser.getConfiguration().setSymbolResolver(symSolv);
+
+		// JavaParser instances are not thread safe, every worker gets its own.
+		parsers = ThreadLocal.withInitial(
+				() -> new JavaParser(createParserConfiguration(isStreaming).setSymbolResolver(symSolv)));
+	}
+
+	/**
+	 * Creates the configuration of a parser. Comments are not needed by any
+	 * metric, so they are not attributed to the nodes while streaming.
+	 * 
+	 * @param isStreaming {@code true} if units are not kept after their analysis.
+	 * @return the parser configuration
+	 */
+	private static ParserConfiguration createParserConfiguration(final boolean isStreaming) {
+		return new ParserConfiguration().setAttributeComments(!isStreaming);
 	}
 }
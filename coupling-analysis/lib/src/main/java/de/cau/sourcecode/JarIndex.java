@@ -0,0 +1,280 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Persistent index of the class names of external library jars. Each jar is
+ * stored with its path, size, modification time and a hash of its central
+ * directory. As long as all of them match, the class names are read from the
+ * index file instead of the jar. The index file is rewritten only if a jar was
+ * indexed again. A broken index file is ignored.
+ *
+ * <p>
+ * Format (big-endian): magic, version, number of jars and then for every jar
+ * its path, size, modification time, hash, number of classes and the class
+ * names. Strings are stored as length and UTF-8 bytes.
+ *
+ */
+public class JarIndex {
+
+	private static final int MAGIC = 0x4A494458;
+	private static final int VERSION = 1;
+
+	// Smallest entry of a jar: empty path, size, modification time, hash and no
+	// classes.
+	private static final int MIN_JAR_BYTES = Integer.BYTES + 3 * Long.BYTES + Integer.BYTES;
+
+	// The central directory is at the end of a jar, its last part is hashed.
+	private static final int HASHED_TAIL = 64 * 1024;
+
+	private final Path indexFile;
+	private final Map<String, Entry> entries;
+	private boolean isChanged;
+
+	/**
+	 * A single indexed jar.
+	 */
+	private static class Entry {
+
+		final long size;
+		final long lastModified;
+		final long hash;
+		final List<String> classNames;
+
+		Entry(final long size, final long lastModified, final long hash, final List<String> classNames) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.hash = hash;
+			this.classNames = classNames;
+		}
+	}
+
+	private JarIndex(final Path indexFile, final Map<String, Entry> entries) {
+		this.indexFile = indexFile;
+		this.entries = entries;
+	}
+
+	/**
+	 * Loads the index from the given file. A missing, outdated or broken file
+	 * results in an empty index.
+	 *
+	 * @param indexFile
+	 * @return the index
+	 */
+	public static JarIndex load(final Path indexFile) {
+
+		final Map<String, Entry> entries = new HashMap<>();
+
+		if (Files.isRegularFile(indexFile)) {
+			try (final DataInputStream in = new DataInputStream(
+					new ByteArrayInputStream(Files.readAllBytes(indexFile)))) {
+
+				if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+					final int jarCount = checkCount(in, in.readInt(), MIN_JAR_BYTES);
+
+					for (int i = 0; i < jarCount; i++) {
+						final String path = readString(in);
+						final long size = in.readLong();
+						final long lastModified = in.readLong();
+						final long hash = in.readLong();
+						final int classCount = checkCount(in, in.readInt(), Integer.BYTES);
+
+						final List<String> classNames = new ArrayList<>(classCount);
+						for (int j = 0; j < classCount; j++) {
+							classNames.add(readString(in));
+						}
+						entries.put(path, new Entry(size, lastModified, hash, classNames));
+					}
+				}
+			} catch (final IOException | RuntimeException e) {
+				// The index is only a cache, it is simply built again.
+				entries.clear();
+			}
+		}
+		return new JarIndex(indexFile, entries);
+	}
+
+	/**
+	 * Get the names of all classes of the given jar in 'path notation' without
+	 * the file extension (e.g. a/b/ClassName$Inner). If the jar changed since it
+	 * was indexed, it is read again.
+	 *
+	 * @param pathToJar
+	 * @return class names
+	 * @throws IOException if the jar could not be read.
+	 */
+	public synchronized List<String> getClassNames(final String pathToJar) throws IOException {
+
+		final File jar = new File(pathToJar);
+		final long size = jar.length();
+		final long lastModified = jar.lastModified();
+		final Entry entry = entries.get(pathToJar);
+
+		if (entry != null && entry.size == size && entry.lastModified == lastModified
+				&& entry.hash == hashTail(jar)) {
+			return entry.classNames;
+		}
+
+		final List<String> classNames = readClassNames(pathToJar);
+		entries.put(pathToJar, new Entry(size, lastModified, hashTail(jar), classNames));
+		isChanged = true;
+		return classNames;
+	}
+
+	/**
+	 * Reads the class names from the central directory of the jar.
+	 *
+	 * @param pathToJar
+	 * @return class names
+	 * @throws IOException if the jar could not be read.
+	 */
+	private static List<String> readClassNames(final String pathToJar) throws IOException {
+
+		final List<String> classNames = new ArrayList<>();
+		try (final ZipFile jar = new ZipFile(pathToJar)) {
+
+			final Enumeration<? extends ZipEntry> zipEntries = jar.entries();
+			while (zipEntries.hasMoreElements()) {
+				final String name = zipEntries.nextElement().getName();
+
+				if (name.endsWith(".class")) {
+					classNames.add(name.substring(0, name.length() - ".class".length()));
+				}
+			}
+		}
+		return Collections.unmodifiableList(classNames);
+	}
+
+	/**
+	 * Hashes the end of the given file, which contains the central directory of a
+	 * jar.
+	 *
+	 * @param file
+	 * @return CRC32 of the last bytes of the file
+	 * @throws IOException if the file could not be read.
+	 */
+	private static long hashTail(final File file) throws IOException {
+
+		try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			final int length = (int) Math.min(raf.length(), HASHED_TAIL);
+			final byte[] tail = new byte[length];
+
+			raf.seek(raf.length() - length);
+			raf.readFully(tail);
+
+			final CRC32 crc = new CRC32();
+			crc.update(tail);
+			return crc.getValue();
+		}
+	}
+
+	/**
+	 * Writes the index to its file, if a jar was indexed since loading. Jars that
+	 * were not asked for are dropped.
+	 *
+	 * @param usedJars all jars of the current run
+	 * @throws IOException if the file could not be written.
+	 */
+	public synchronized void save(final List<String> usedJars) throws IOException {
+
+		if (!isChanged && entries.keySet().equals(Set.copyOf(usedJars)))
+			return;
+
+		final Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+		try (final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+
+			final List<String> jars = new ArrayList<>();
+			for (final String jar : usedJars) {
+				if (entries.containsKey(jar)) {
+					jars.add(jar);
+				}
+			}
+			out.writeInt(jars.size());
+
+			for (final String jar : jars) {
+				final Entry entry = entries.get(jar);
+				writeString(out, jar);
+				out.writeLong(entry.size);
+				out.writeLong(entry.lastModified);
+				out.writeLong(entry.hash);
+				out.writeInt(entry.classNames.size());
+
+				for (final String className : entry.classNames) {
+					writeString(out, className);
+				}
+			}
+		}
+		Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		isChanged = false;
+	}
+
+	/**
+	 * Checks that the given number of elements fits into the rest of the index
+	 * file, so a broken file can not cause a huge allocation.
+	 *
+	 * @param in          the index file
+	 * @param count       read from the index file
+	 * @param minimumSize of a single element in bytes
+	 * @return the count
+	 * @throws IOException if the count is negative or too large.
+	 */
+	private static int checkCount(final DataInputStream in, final int count, final int minimumSize)
+			throws IOException {
+
+		if (count < 0 || count > in.available() / minimumSize)
+			throw new IOException("Broken jar index, invalid count: " + count);
+		return count;
+	}
+
+	private static String readString(final DataInputStream in) throws IOException {
+		final byte[] bytes = new byte[checkCount(in, in.readInt(), 1)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(final DataOutputStream out, final String str) throws IOException {
+		final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
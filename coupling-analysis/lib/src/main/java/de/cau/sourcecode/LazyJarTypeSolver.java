@@ -0,0 +1,186 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
+
+import de.cau.tools.Logger;
+
+/**
+ * A pool of {@link JarTypeSolver}s for many jars. On creation only the package
+ * names of every jar are indexed, based on the class names of the
+ * {@link JarIndex}. The {@link JarTypeSolver} of a jar is created the first
+ * time a type of one of its packages is needed, so jars that are never used
+ * are never loaded. Jars are asked in the given order, like a
+ * {@link com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver}
+ * with one solver per jar would do. Jars that can not be read are skipped.
+ *
+ */
+public class LazyJarTypeSolver implements TypeSolver {
+
+	private final List<String> jars;
+	private final Map<String, List<Integer>> packageToJars;
+	private final JarTypeSolver[] solvers;
+	private final boolean[] isBroken;
+	private final Logger logger;
+	private TypeSolver parent;
+
+	/**
+	 * Constructor, indexes the packages of all given jars. Jars that can not be
+	 * read are logged and skipped.
+	 *
+	 * @param pathsToJars
+	 * @param jarIndex    provides the class names of every jar.
+	 */
+	public LazyJarTypeSolver(final List<String> pathsToJars, final JarIndex jarIndex) {
+		this.jars = new ArrayList<>(pathsToJars);
+		this.packageToJars = new HashMap<>();
+		this.solvers = new JarTypeSolver[jars.size()];
+		this.isBroken = new boolean[jars.size()];
+		this.logger = Logger.getInstance();
+
+		for (int i = 0; i < jars.size(); i++) {
+
+			final List<String> classNames;
+			try {
+				classNames = jarIndex.getClassNames(jars.get(i));
+			} catch (final IOException | RuntimeException e) {
+				isBroken[i] = true;
+				logger.logWarning("Skipped unreadable jar: " + jars.get(i) + " (" + e + ")");
+				continue;
+			}
+
+			for (final String packageName : toPackageNames(classNames)) {
+				packageToJars.computeIfAbsent(packageName, p -> new ArrayList<>()).add(i);
+			}
+		}
+	}
+
+	/**
+	 * Get the names of all packages of the given classes.
+	 *
+	 * @param classNames in 'path notation'
+	 * @return package names in package notation
+	 */
+	private static Set<String> toPackageNames(final List<String> classNames) {
+
+		final Set<String> packageNames = new HashSet<>();
+		for (final String name : classNames) {
+			final int index = name.lastIndexOf('/');
+
+			// module-info and package-info can never be asked for.
+			if (name.indexOf('-', index + 1) < 0) {
+				packageNames.add(index < 0 ? "" : name.substring(0, index).replace('/', '.'));
+			}
+		}
+		return packageNames;
+	}
+
+	@Override
+	public TypeSolver getParent() {
+		return parent;
+	}
+
+	@Override
+	public void setParent(final TypeSolver parent) {
+		if (this.parent != null)
+			throw new IllegalStateException("This TypeSolver already has a parent.");
+		if (parent == this)
+			throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+		this.parent = parent;
+	}
+
+	/**
+	 * {@inheritDoc} Only the jars containing a package, that the name could
+	 * belong to, are asked. Nested types are named like 'a.b.Outer.Inner', so
+	 * every prefix of the name could be the package.
+	 */
+	@Override
+	public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(final String name) {
+
+		for (final int jar : findCandidateJars(name)) {
+
+			final JarTypeSolver solver = getJarTypeSolver(jar);
+			if (solver == null)
+				continue;
+
+			final SymbolReference<ResolvedReferenceTypeDeclaration> ref = solver.tryToSolveType(name);
+			if (ref.isSolved())
+				return ref;
+		}
+		return SymbolReference.unsolved(ResolvedReferenceTypeDeclaration.class);
+	}
+
+	/**
+	 * Find all jars, that could contain the given type.
+	 *
+	 * @param name fully-qualified type name
+	 * @return indices of the jars in the given order
+	 */
+	private Set<Integer> findCandidateJars(final String name) {
+
+		final Set<Integer> candidates = new TreeSet<>();
+		addJars(candidates, "");
+
+		for (int index = name.indexOf('.'); index >= 0; index = name.indexOf('.', index + 1)) {
+			addJars(candidates, name.substring(0, index));
+		}
+		return candidates;
+	}
+
+	private void addJars(final Set<Integer> candidates, final String packageName) {
+		final List<Integer> found = packageToJars.get(packageName);
+		if (found != null) {
+			candidates.addAll(found);
+		}
+	}
+
+	/**
+	 * Get the solver of the given jar, it is created on the first call. A jar that
+	 * could not be loaded is logged once and never loaded again.
+	 *
+	 * @param jar index of the jar
+	 * @return the solver of the jar or {@code null} if the jar could not be
+	 *         loaded.
+	 */
+	private synchronized JarTypeSolver getJarTypeSolver(final int jar) {
+
+		if (solvers[jar] == null && !isBroken[jar]) {
+			try {
+				final JarTypeSolver solver = new JarTypeSolver(jars.get(jar));
+				solver.setParent(this);
+				solvers[jar] = solver;
+			} catch (final IOException | RuntimeException e) {
+				isBroken[jar] = true;
+				logger.logWarning("Skipped unloadable jar: " + jars.get(jar) + " (" + e + ")");
+			}
+		}
+		return solvers[jar];
+	}
+}
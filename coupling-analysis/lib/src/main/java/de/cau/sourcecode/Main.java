@@ -72,6 +72,37 @@ public class Main {
 		final CouplingMonitor cm = CouplingMonitor.getInstance();
 		final ASTParser classCollector = new ASTParser();
 
+		if (Configuration.isStreamingSourceCode) {
+			analyseStreaming(cm, classCollector);
+		} else {
+			analyse(cm, classCollector);
+		}
+
+		if (args.length <= 0) {
+			// Print to console
+			cm.printAllCouplings();
+			logger.log(Configuration.getSourceCodeInfo().toString());
+
+		}
+
+		// Create a CSV file for each metrics.
+		writeDataToCSV(cm, new DataTransformer(), Configuration.getWhiteList());
+
+		if (args.length <= 0) {
+			logger.close();
+		}
+		isFinished = true;
+	}
+
+	/**
+	 * Parses all java files first and calculates the coupling of all units
+	 * afterwards.
+	 * 
+	 * @param cm             Coupling monitor
+	 * @param classCollector parser
+	 */
+	private static void analyse(final CouplingMonitor cm, final ASTParser classCollector) {
+
 		final List<Optional<CompilationUnit>> cus = classCollector.getAllCompilationUnits();
 
 		// Register all classes we want to count and collect all packages of the source
@@ -92,28 +123,51 @@ public class Main {
 
 		})));
 
-		logger.log("Calculate coupling with given metric(s): ");
-		logger.logSeparation();
-		logger.logAll(Configuration.getSourceCodeMetrics().stream().map(x -> "\t - " + x.toString())
-				.collect(Collectors.toList()));
+		logMetrics();
 
 		// Here we start to calculate the coupling for the defined metrics.
 		cm.registerSourceCodeCoupling(cus);
+	}
 
-		if (args.length <= 0) {
-			// Print to console
-			cm.printAllCouplings();
-			logger.log(Configuration.getSourceCodeInfo().toString());
-
+	/**
+	 * Registers all classes by a pre-scan of the java files, then parses and
+	 * analyses the java files one by one. No {@link CompilationUnit} is kept, so
+	 * the size of the project is not limited by the heap.
+	 * 
+	 * @param cm             Coupling monitor
+	 * @param classCollector parser
+	 */
+	private static void analyseStreaming(final CouplingMonitor cm, final ASTParser classCollector) {
+
+		final List<String> sources = classCollector.getAllSourceFiles();
+
+		// Register all classes we want to count, like it is done with the parsed
+		// units.
+		for (final String source : sources) {
+			SourcePreScanner.scan(source).ifPresent(scanned -> {
+				final String pack = scanned.getPackageName();
+				Configuration.addToWhiteList(pack);
+				cm.registerClass(pack.isEmpty() ? scanned.getClassName() : pack + "." + scanned.getClassName());
+			});
 		}
 
-		// Create a CSV file for each metrics.
-		writeDataToCSV(cm, new DataTransformer(), Configuration.getWhiteList());
+		logMetrics();
 
-		if (args.length <= 0) {
-			logger.close();
-		}
-		isFinished = true;
+		final SourceMetricEngine engine = cm.prepareSourceCodeCoupling();
+		classCollector.parseEach(sources, cu -> cm.registerSourceCodeCoupling(engine, cu));
+		engine.finish();
+		Logger.getInstance().logSeparation();
+	}
+
+	/**
+	 * Logs all configured sourcecode metrics.
+	 */
+	private static void logMetrics() {
+		final Logger logger = Logger.getInstance();
+		logger.log("Calculate coupling with given metric(s): ");
+		logger.logSeparation();
+		logger.logAll(Configuration.getSourceCodeMetrics().stream().map(x -> "\t - " + x.toString())
+				.collect(Collectors.toList()));
 	}
 
 	/**
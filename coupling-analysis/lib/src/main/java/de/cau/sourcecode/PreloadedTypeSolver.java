@@ -0,0 +1,110 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+
+/**
+ * Type solver for the project classes, based on the {@link CompilationUnit}s
+ * parsed by the {@link ASTParser}. It replaces the
+ * {@link com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver},
+ * which would parse every needed java file a second time. The type
+ * declarations of all units, including member types, are indexed by their
+ * fully-qualified name.
+ *
+ */
+public class PreloadedTypeSolver implements TypeSolver {
+
+	private final Map<String, TypeDeclaration<?>> typeDeclarations;
+	private TypeSolver parent;
+
+	/**
+	 * Constructor, the solver is empty until units are added.
+	 */
+	public PreloadedTypeSolver() {
+		this.typeDeclarations = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Add the types of all given units. If a type is declared more than once, the
+	 * first declaration is used.
+	 *
+	 * @param cus list of {@link CompilationUnit} units, empty units are skipped.
+	 */
+	public void addAll(final List<Optional<CompilationUnit>> cus) {
+
+		for (final Optional<CompilationUnit> ocu : cus) {
+			ocu.ifPresent(cu -> {
+				final String prefix = cu.getPackageDeclaration().map(p -> p.getNameAsString() + ".").orElse("");
+				cu.getTypes().forEach(type -> addType(prefix, type));
+			});
+		}
+	}
+
+	/**
+	 * Add the given type and its member types.
+	 *
+	 * @param prefix package and enclosing types, ending with a dot.
+	 * @param type
+	 */
+	private void addType(final String prefix, final TypeDeclaration<?> type) {
+
+		final String name = prefix + type.getNameAsString();
+		typeDeclarations.putIfAbsent(name, type);
+
+		for (final BodyDeclaration<?> member : type.getMembers()) {
+			if (member instanceof TypeDeclaration<?>) {
+				addType(name + ".", (TypeDeclaration<?>) member);
+			}
+		}
+	}
+
+	@Override
+	public TypeSolver getParent() {
+		return parent;
+	}
+
+	@Override
+	public void setParent(final TypeSolver parent) {
+		if (this.parent != null)
+			throw new IllegalStateException("This TypeSolver already has a parent.");
+		if (parent == this)
+			throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+		this.parent = parent;
+	}
+
+	@Override
+	public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(final String name) {
+
+		final TypeDeclaration<?> type = typeDeclarations.get(name);
+		if (type == null)
+			return SymbolReference.unsolved(ResolvedReferenceTypeDeclaration.class);
+
+		return SymbolReference.solved(JavaParserFacade.get(this).getTypeDeclaration(type));
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.javassistmodel.JavassistFactory;
+import com.github.javaparser.symbolsolver.model.resolution.SymbolReference;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+
+import de.cau.monitor.ClassHierarchy;
+import de.cau.monitor.CouplingMonitor;
+import javassist.ClassPath;
+import javassist.ClassPool;
+import javassist.NotFoundException;
+
+/**
+ * Type solver for the project classes, based on the class files read by the
+ * bytecode analysis. A class file is only read, when its type is needed for
+ * the first time. This is a lot cheaper than parsing the java file of the type
+ * again.
+ *
+ * <p>
+ * Unlike a parsed java file, a class file declaration needs all its super
+ * types to resolve any method. Classes with a super type, that can not be
+ * solved (e.g. a library that is not configured), are left to the next type
+ * solver. Declarations are created once per class, the jars of the class
+ * files are kept open until the solver is closed.
+ *
+ */
+public class ProjectByteCodeTypeSolver implements TypeSolver, Closeable {
+
+	private final ClassPool classPool;
+	private final LocationClassPath classPath;
+	private final Map<String, String> knownClasses;
+	private final ClassHierarchy hierarchy;
+	private final Map<String, Boolean> isComplete;
+	private final Map<String, SymbolReference<ResolvedReferenceTypeDeclaration>> declarations;
+	private TypeSolver parent;
+
+	/**
+	 * Constructor
+	 *
+	 * @param classFileLocations maps class names (e.g. a.b.Outer$Inner) to their
+	 *                           class file or to jar path and entry name,
+	 *                           separated by
+	 *                           {@link CouplingMonitor#JAR_SEPARATOR}.
+	 * @param hierarchy          of the classes.
+	 */
+	public ProjectByteCodeTypeSolver(final Map<String, String> classFileLocations, final ClassHierarchy hierarchy) {
+		this.classPool = new ClassPool(false);
+		this.knownClasses = new HashMap<>();
+		this.hierarchy = hierarchy;
+		this.isComplete = new HashMap<>();
+		this.declarations = new HashMap<>();
+
+		final Map<String, String> locations = new HashMap<>(classFileLocations);
+		for (final String className : locations.keySet()) {
+			// Nested types are asked for like 'a.b.Outer.Inner'.
+			knownClasses.put(className.replace('$', '.'), className);
+		}
+		this.classPath = new LocationClassPath(locations);
+		classPool.appendClassPath(classPath);
+	}
+
+	@Override
+	public TypeSolver getParent() {
+		return parent;
+	}
+
+	@Override
+	public void setParent(final TypeSolver parent) {
+		if (this.parent != null)
+			throw new IllegalStateException("This TypeSolver already has a parent.");
+		if (parent == this)
+			throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+		this.parent = parent;
+	}
+
+	@Override
+	public synchronized SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(final String name) {
+
+		final String className = knownClasses.get(name);
+		if (className == null || !isComplete(className))
+			return SymbolReference.unsolved(ResolvedReferenceTypeDeclaration.class);
+
+		SymbolReference<ResolvedReferenceTypeDeclaration> declaration = declarations.get(className);
+		if (declaration == null) {
+			try {
+				declaration = SymbolReference
+						.solved(JavassistFactory.toTypeDeclaration(classPool.get(className), getRoot()));
+			} catch (final NotFoundException e) {
+				throw new IllegalStateException("Class file of " + className + " could not be read!", e);
+			}
+			declarations.put(className, declaration);
+		}
+		return declaration;
+	}
+
+	/**
+	 * Closes all jars opened to read class files. A later lookup opens them again.
+	 */
+	@Override
+	public synchronized void close() {
+		classPath.close();
+	}
+
+	/**
+	 * Check if all super types of the given class can be solved.
+	 *
+	 * @param className
+	 * @return {@code true} if all super types can be solved, otherwise
+	 *         {@code false}
+	 */
+	private boolean isComplete(final String className) {
+
+		final Boolean cached = isComplete.get(className);
+		if (cached != null)
+			return cached;
+
+		// Project classes end up here as well, their own super types are part of the
+		// transitive ancestors already.
+		boolean complete = true;
+		for (final String ancestor : hierarchy.getAncestors(className)) {
+			final String typeName = ancestor.replace('$', '.');
+			if (!knownClasses.containsKey(typeName) && !getRoot().hasType(typeName)) {
+				complete = false;
+				break;
+			}
+		}
+		isComplete.put(className, complete);
+		return complete;
+	}
+
+	/**
+	 * Class path of javassist, that reads every class file from its recorded
+	 * location. Each jar is opened once.
+	 */
+	private static class LocationClassPath implements ClassPath {
+
+		private final Map<String, String> locations;
+		private final Map<String, ZipFile> jars;
+
+		LocationClassPath(final Map<String, String> locations) {
+			this.locations = locations;
+			this.jars = new HashMap<>();
+		}
+
+		@Override
+		public InputStream openClassfile(final String classname) throws NotFoundException {
+
+			final String location = locations.get(classname);
+			if (location == null)
+				return null;
+
+			try {
+				final int index = location.indexOf(CouplingMonitor.JAR_SEPARATOR);
+				if (index < 0)
+					return new FileInputStream(location);
+
+				final ZipFile jar = getJar(location.substring(0, index));
+				final ZipEntry entry = jar
+						.getEntry(location.substring(index + CouplingMonitor.JAR_SEPARATOR.length()));
+				if (entry == null)
+					throw new NotFoundException(classname);
+
+				try (final InputStream in = jar.getInputStream(entry)) {
+					return new ByteArrayInputStream(in.readAllBytes());
+				}
+			} catch (final IOException e) {
+				throw new NotFoundException(classname, e);
+			}
+		}
+
+		/**
+		 * Get the opened jar with the given path, it is opened on the first call.
+		 *
+		 * @param path
+		 * @return the jar
+		 * @throws IOException if the jar could not be opened.
+		 */
+		private synchronized ZipFile getJar(final String path) throws IOException {
+
+			ZipFile jar = jars.get(path);
+			if (jar == null) {
+				jar = new ZipFile(path);
+				jars.put(path, jar);
+			}
+			return jar;
+		}
+
+		/**
+		 * Closes all opened jars.
+		 */
+		synchronized void close() {
+
+			for (final ZipFile jar : jars.values()) {
+				try {
+					jar.close();
+				} catch (final IOException e) {
+					e.printStackTrace();
+				}
+			}
+			jars.clear();
+		}
+
+		@Override
+		public URL find(final String classname) {
+
+			final String location = locations.get(classname);
+			if (location == null)
+				return null;
+
+			try {
+				final int index = location.indexOf(CouplingMonitor.JAR_SEPARATOR);
+				return index < 0 ? new File(location).toURI().toURL()
+						: new URL("jar:" + new File(location.substring(0, index)).toURI() + location.substring(index));
+			} catch (final MalformedURLException e) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+
+import de.cau.config.Configuration;
+
+/**
+ * Runs the symbol solver on a long-lived thread with a large stack, so deep
+ * recursions of the symbol solver do not need a large stack for the whole
+ * application. The caches of the symbol solver are not thread safe, so only one
+ * resolution runs at a time. Every resolution has a time budget, if it is
+ * exceeded the resolution fails with a {@link ResolutionTimeoutException}
+ * right away. The symbol solver does not react to interrupts, so the stuck
+ * thread is interrupted and left behind, the cached state of the symbol solver
+ * is dropped and the next resolution runs on a new thread.
+ *
+ */
+public class ResolutionExecutor {
+
+	private static final ThreadLocal<Boolean> IS_RESOLUTION_THREAD = ThreadLocal.withInitial(() -> false);
+
+	private static ResolutionExecutor executorInstance;
+
+	private ExecutorService worker;
+	private int stackSizeMB;
+	private int threadCount;
+
+	/**
+	 * Constructor
+	 */
+	private ResolutionExecutor() {
+	}
+
+	/**
+	 * Get Singleton instance.
+	 *
+	 * @return resolution executor
+	 */
+	public static synchronized ResolutionExecutor getInstance() {
+		if (executorInstance == null) {
+			executorInstance = new ResolutionExecutor();
+		}
+		return executorInstance;
+	}
+
+	/**
+	 * Get the worker, it is created again if the configured stack size changed or
+	 * the last one was dropped.
+	 *
+	 * @return the worker
+	 */
+	private ExecutorService getWorker() {
+
+		if (worker == null || stackSizeMB != Configuration.resolutionStackSizeMB) {
+			if (worker != null) {
+				worker.shutdown();
+			}
+			stackSizeMB = Configuration.resolutionStackSizeMB;
+			worker = Executors.newSingleThreadExecutor(runnable -> {
+				final Thread thread = new Thread(null, () -> {
+					IS_RESOLUTION_THREAD.set(true);
+					runnable.run();
+				}, "symbol-resolution-" + threadCount++, stackSizeMB * 1024L * 1024L);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return worker;
+	}
+
+	/**
+	 * Runs the given resolution on the thread with a large stack and waits for
+	 * its result at most {@link Configuration#resolutionTimeoutMillis}
+	 * milliseconds. A resolution started by another resolution runs directly.
+	 *
+	 * @param <T>
+	 * @param resolution
+	 * @return the result of the resolution.
+	 * @throws RuntimeException           raised by the resolution.
+	 * @throws Error                      raised by the resolution, like a
+	 *                                    {@link StackOverflowError}.
+	 * @throws ResolutionTimeoutException if the time budget is exceeded.
+	 */
+	public <T> T execute(final Callable<T> resolution) {
+
+		if (IS_RESOLUTION_THREAD.get()) {
+			try {
+				return resolution.call();
+			} catch (final RuntimeException e) {
+				throw e;
+			} catch (final Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		synchronized (this) {
+			final Future<T> task = getWorker().submit(resolution);
+
+			try {
+				return Configuration.resolutionTimeoutMillis > 0
+						? task.get(Configuration.resolutionTimeoutMillis, TimeUnit.MILLISECONDS)
+						: task.get();
+
+			} catch (final TimeoutException e) {
+				abandonWorker(task);
+				throw new ResolutionTimeoutException(Configuration.resolutionTimeoutMillis);
+			} catch (final InterruptedException e) {
+				abandonWorker(task);
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Symbol resolution was interrupted!", e);
+			} catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				if (cause instanceof Error)
+					throw (Error) cause;
+				throw new IllegalStateException(cause);
+			}
+		}
+	}
+
+	/**
+	 * Interrupts the given task and drops its thread without waiting for it. The
+	 * cached state of the symbol solver may be left inconsistent by the task, so
+	 * it is dropped as well.
+	 *
+	 * @param task
+	 */
+	private void abandonWorker(final Future<?> task) {
+		task.cancel(true);
+		worker.shutdownNow();
+		worker = null;
+		JavaParserFacade.clearInstances();
+	}
+}
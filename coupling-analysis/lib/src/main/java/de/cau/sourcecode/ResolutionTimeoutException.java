@@ -0,0 +1,35 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+/**
+ * Raised if a symbol resolution exceeded its time budget and was interrupted.
+ *
+ */
+public class ResolutionTimeoutException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 *
+	 * @param timeoutMillis the exceeded time budget
+	 */
+	public ResolutionTimeoutException(final long timeoutMillis) {
+		super("Symbol resolution exceeded " + timeoutMillis + " ms and was interrupted.");
+	}
+}
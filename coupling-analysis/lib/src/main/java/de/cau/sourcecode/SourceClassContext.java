@@ -0,0 +1,145 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+
+/**
+ * Everything the sourcecode metrics need of a single class: its imports, super
+ * types, field types and all method calls within the class, including the ones
+ * of nested classes. The {@link SourceMetricEngine} collects the method calls
+ * of all classes of a compilation unit in one walk.
+ *
+ */
+public class SourceClassContext {
+
+	private final ClassOrInterfaceDeclaration declaration;
+	private final String className;
+	private final CompilationUnit compilationUnit;
+	private final List<Type> fieldTypes;
+	private final List<MethodCallExpr> methodCalls;
+
+	/**
+	 * Constructor, method calls are added while walking the class.
+	 *
+	 * @param declaration
+	 * @param className       qualified name, nested classes separated with '$'.
+	 * @param compilationUnit containing the class.
+	 */
+	SourceClassContext(final ClassOrInterfaceDeclaration declaration, final String className,
+			final CompilationUnit compilationUnit) {
+		this.declaration = declaration;
+		this.className = className;
+		this.compilationUnit = compilationUnit;
+		this.methodCalls = new ArrayList<>();
+
+		final List<Type> types = new ArrayList<>();
+		for (final FieldDeclaration field : declaration.getFields()) {
+			types.add(field.findFirst(VariableDeclarator.class).get().getType().getElementType());
+		}
+		this.fieldTypes = Collections.unmodifiableList(types);
+	}
+
+	/**
+	 * Creates the context of a single class by walking it on its own.
+	 *
+	 * @param declaration
+	 * @param className   qualified name, nested classes separated with '$'.
+	 * @return the context
+	 */
+	public static SourceClassContext of(final ClassOrInterfaceDeclaration declaration, final String className) {
+
+		final SourceClassContext context = new SourceClassContext(declaration, className,
+				declaration.findCompilationUnit().get());
+		context.methodCalls.addAll(declaration.findAll(MethodCallExpr.class));
+		return context;
+	}
+
+	void addMethodCall(final MethodCallExpr mce) {
+		methodCalls.add(mce);
+	}
+
+	public ClassOrInterfaceDeclaration getDeclaration() {
+		return declaration;
+	}
+
+	/**
+	 * Get the qualified class name, nested classes are separated with '$' like in
+	 * bytecode.
+	 *
+	 * @return class name
+	 */
+	public String getClassName() {
+		return className;
+	}
+
+	public CompilationUnit getCompilationUnit() {
+		return compilationUnit;
+	}
+
+	/**
+	 * Get the imports of the compilation unit.
+	 *
+	 * @return imports
+	 */
+	public NodeList<ImportDeclaration> getImports() {
+		return compilationUnit.getImports();
+	}
+
+	public NodeList<ClassOrInterfaceType> getExtendedTypes() {
+		return declaration.getExtendedTypes();
+	}
+
+	public NodeList<ClassOrInterfaceType> getImplementedTypes() {
+		return declaration.getImplementedTypes();
+	}
+
+	/**
+	 * Get the element type of every field declaration, e.g. String for String[].
+	 *
+	 * @return field types
+	 */
+	public List<Type> getFieldTypes() {
+		return fieldTypes;
+	}
+
+	/**
+	 * Get all method calls within the class, including the ones of nested
+	 * classes.
+	 *
+	 * @return method calls
+	 */
+	public List<MethodCallExpr> getMethodCalls() {
+		return Collections.unmodifiableList(methodCalls);
+	}
+
+	public boolean isInterface() {
+		return declaration.isInterface();
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+import de.cau.monitor.metrics.ACoupling;
+import de.cau.monitor.metrics.CouplingTag;
+import de.cau.monitor.metrics.StructalDebtIndex;
+
+/**
+ * Calculates all sourcecode metrics in one pass. Every compilation unit is
+ * walked once, collecting the classes with their method calls. Every class is
+ * then handed to all metrics, the metrics that depend on the result of all
+ * classes are calculated at the end.
+ *
+ */
+public class SourceMetricEngine {
+
+	private final List<ACoupling> classMetrics;
+	private final List<StructalDebtIndex> indexMetrics;
+	private boolean isAnyClassVisited;
+
+	/**
+	 * Constructor
+	 *
+	 * @param metrics sorted by their priority.
+	 */
+	public SourceMetricEngine(final List<ACoupling> metrics) {
+
+		this.classMetrics = new ArrayList<>();
+		this.indexMetrics = new ArrayList<>();
+
+		for (final ACoupling coupl : metrics) {
+
+			if (coupl.getNameTag() == CouplingTag.STRUCTUAL_DEBT_INDEX) {
+				indexMetrics.add((StructalDebtIndex) coupl);
+			} else {
+				classMetrics.add(coupl);
+			}
+		}
+	}
+
+	/**
+	 * Collects all classes and interfaces of the given unit in a single walk. The
+	 * first class is named by its package, all other classes are treated as
+	 * nested classes of the first one.
+	 *
+	 * @param cu
+	 * @return the contexts of all classes and interfaces in order of appearance.
+	 */
+	public List<SourceClassContext> collectClasses(final CompilationUnit cu) {
+
+		final String pack = cu.getPackageDeclaration().map(p -> p.getNameAsString() + ".").orElse("");
+		final List<SourceClassContext> contexts = new ArrayList<>();
+
+		walk(cu, cu, pack, contexts, new ArrayDeque<>());
+		return contexts;
+	}
+
+	/**
+	 * Walks the given node in pre-order, like {@link Node#findAll(Class)} does.
+	 * Every method call is added to all classes it is part of.
+	 *
+	 * @param node
+	 * @param cu
+	 * @param pack     package prefix of the unit
+	 * @param contexts all classes found so far
+	 * @param open     classes enclosing the node, innermost first
+	 */
+	private void walk(final Node node, final CompilationUnit cu, final String pack,
+			final List<SourceClassContext> contexts, final Deque<SourceClassContext> open) {
+
+		if (node instanceof MethodCallExpr) {
+			for (final SourceClassContext context : open) {
+				context.addMethodCall((MethodCallExpr) node);
+			}
+		}
+
+		if (node instanceof ClassOrInterfaceDeclaration) {
+			final ClassOrInterfaceDeclaration coi = (ClassOrInterfaceDeclaration) node;
+
+			// If it is a nested class separate with a $ like the byte code does.
+			final String className = contexts.isEmpty() ? pack + coi.getNameAsString()
+					: contexts.get(0).getClassName() + "$" + coi.getNameAsString();
+
+			final SourceClassContext context = new SourceClassContext(coi, className, cu);
+			contexts.add(context);
+			open.push(context);
+
+			for (final Node child : node.getChildNodes()) {
+				walk(child, cu, pack, contexts, open);
+			}
+			open.pop();
+			return;
+		}
+
+		for (final Node child : node.getChildNodes()) {
+			walk(child, cu, pack, contexts, open);
+		}
+	}
+
+	/**
+	 * Calculates all metrics for the given class. Interfaces are skipped.
+	 *
+	 * @param context
+	 */
+	public void visitClass(final SourceClassContext context) {
+
+		if (context.isInterface())
+			return;
+
+		isAnyClassVisited = true;
+		for (final ACoupling coupl : classMetrics) {
+			coupl.calculateCoupling(context);
+		}
+	}
+
+	/**
+	 * Calculates the metrics that depend on the result of all classes, like the
+	 * SDI.
+	 */
+	public void finish() {
+
+		if (!isAnyClassVisited)
+			return;
+
+		for (final StructalDebtIndex sdi : indexMetrics) {
+			sdi.calculateSourceCodeIndex();
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Finds the package and the first class or interface of a java file without
+ * parsing it. Comments, strings and character literals are skipped, so only
+ * real declarations are found. This is the same class the first
+ * {@link com.github.javaparser.ast.body.ClassOrInterfaceDeclaration} of the
+ * parsed file would be, enums, annotations and records are not counted.
+ *
+ */
+public class SourcePreScanner {
+
+	private final String text;
+	private int pos;
+
+	private SourcePreScanner(final String text) {
+		this.text = text;
+	}
+
+	/**
+	 * The package and the name of the first class or interface of a java file.
+	 */
+	public static class ScannedClass {
+
+		private final String packageName;
+		private final String className;
+
+		ScannedClass(final String packageName, final String className) {
+			this.packageName = packageName;
+			this.className = className;
+		}
+
+		/**
+		 * Get the package name.
+		 *
+		 * @return package name, empty for the default package.
+		 */
+		public String getPackageName() {
+			return packageName;
+		}
+
+		/**
+		 * Get the simple name of the class.
+		 *
+		 * @return class name
+		 */
+		public String getClassName() {
+			return className;
+		}
+	}
+
+	/**
+	 * Scans the given java file.
+	 *
+	 * @param source path of the java file
+	 * @return the first class or interface, empty if there is none or the file
+	 *         could not be read.
+	 */
+	public static Optional<ScannedClass> scan(final String source) {
+		try {
+			return scanText(Files.readString(Path.of(source), StandardCharsets.UTF_8));
+		} catch (final IOException e) {
+			e.printStackTrace();
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Scans the given content of a java file.
+	 *
+	 * @param text
+	 * @return the first class or interface, empty if there is none.
+	 */
+	public static Optional<ScannedClass> scanText(final String text) {
+
+		final SourcePreScanner scanner = new SourcePreScanner(text);
+		String packageName = "";
+		String previous = "";
+		String token = scanner.nextToken();
+
+		while (token != null) {
+
+			if (token.equals("package") && previous.isEmpty()) {
+				packageName = scanner.readQualifiedName();
+
+				// 'Foo.class' is a literal and '@interface' an annotation.
+			} else if ((token.equals("class") || token.equals("interface")) && !previous.equals(".")
+					&& !previous.equals("@")) {
+				final String name = scanner.nextToken();
+				return name != null && Character.isJavaIdentifierStart(name.charAt(0))
+						? Optional.of(new ScannedClass(packageName, name))
+						: Optional.empty();
+			}
+			previous = token;
+			token = scanner.nextToken();
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Reads a qualified name up to the next semicolon.
+	 *
+	 * @return the qualified name
+	 */
+	private String readQualifiedName() {
+
+		final StringBuilder name = new StringBuilder();
+		String token = nextToken();
+
+		while (token != null && !token.equals(";")) {
+			name.append(token);
+			token = nextToken();
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Reads the next identifier or symbol. Whitespace, comments and literals are
+	 * skipped.
+	 *
+	 * @return the token or {@code null} at the end of the text
+	 */
+	private String nextToken() {
+
+		while (pos < text.length()) {
+			final char c = text.charAt(pos);
+
+			if (Character.isWhitespace(c)) {
+				pos++;
+			} else if (text.startsWith("//", pos)) {
+				final int end = text.indexOf('\n', pos);
+				pos = end < 0 ? text.length() : end + 1;
+			} else if (text.startsWith("/*", pos)) {
+				final int end = text.indexOf("*/", pos + 2);
+				pos = end < 0 ? text.length() : end + 2;
+			} else if (text.startsWith("\"\"\"", pos)) {
+				pos = skipLiteral(pos + 3, "\"\"\"");
+			} else if (c == '"' || c == '\'') {
+				pos = skipLiteral(pos + 1, String.valueOf(c));
+			} else if (Character.isJavaIdentifierStart(c)) {
+				final int start = pos;
+				while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))) {
+					pos++;
+				}
+				return text.substring(start, pos);
+			} else {
+				pos++;
+				return String.valueOf(c);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Skips a string, text block or character literal.
+	 *
+	 * @param from position after the opening quote
+	 * @param end  closing quote
+	 * @return position after the closing quote
+	 */
+	private int skipLiteral(final int from, final String end) {
+
+		int i = from;
+		while (i < text.length()) {
+			if (text.charAt(i) == '\\') {
+				i += 2;
+			} else if (text.startsWith(end, i)) {
+				return i + end.length();
+			} else {
+				i++;
+			}
+		}
+		return text.length();
+	}
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.MethodReferenceExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.SuperExpr;
+import com.github.javaparser.ast.expr.ThisExpr;
+import com.github.javaparser.ast.type.ReferenceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.UnsolvedSymbolException;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserFieldDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserParameterDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserVariableDeclaration;
+
+import de.cau.monitor.metrics.ACoupling;
+import de.cau.tools.MetaInfo;
+
+/**
+ * Cache for the results of the symbol solver, shared by all sourcecode
+ * metrics. Method calls are cached by the identity of their AST node, field
+ * types by their compilation unit and their type string. Failures are cached
+ * as well and raised again on every lookup, so every metric still sees the
+ * same exception as without the cache.
+ * <p>
+ * Failed method calls are also remembered by their signature: the type of the
+ * scope, the name and the types of the arguments. An identical call in any
+ * later unit then fails without calling the symbol solver again. The
+ * signatures are kept until the next run, so a missing dependency is not
+ * resolved again in every file. Every failure served from the cache is counted
+ * as cached failure. The symbol solver itself runs on the
+ * {@link ResolutionExecutor}.
+ *
+ */
+public class SymbolResolutionCache {
+
+	private static SymbolResolutionCache cacheInstance;
+
+	private final Map<MethodCallExpr, Object> methodCalls;
+	private final Map<CompilationUnit, Map<String, Object>> types;
+	private final Map<String, Map<String, Object>> failedCalls;
+
+	/**
+	 * Constructor
+	 */
+	private SymbolResolutionCache() {
+		this.methodCalls = new IdentityHashMap<>();
+		this.types = new IdentityHashMap<>();
+		this.failedCalls = new HashMap<>();
+	}
+
+	/**
+	 * Get Singleton instance.
+	 *
+	 * @return symbol resolution cache
+	 */
+	public static synchronized SymbolResolutionCache getInstance() {
+		if (cacheInstance == null) {
+			cacheInstance = new SymbolResolutionCache();
+		}
+		return cacheInstance;
+	}
+
+	/**
+	 * Resolves the given method call, the symbol solver is called only for the
+	 * first lookup of a node and only if no call with the same signature failed
+	 * before.
+	 *
+	 * @param mce
+	 * @param metaInfo counts failures served from the cache.
+	 * @param aCoupl   metric the call is resolved for.
+	 * @return the declaration of the called method.
+	 * @throws RuntimeException    if the call could not be resolved.
+	 * @throws StackOverflowError  if the symbol solver ran into a too deep
+	 *                             recursion.
+	 */
+	public ResolvedMethodDeclaration resolve(final MethodCallExpr mce, final MetaInfo metaInfo,
+			final ACoupling aCoupl) {
+
+		Object result;
+		synchronized (methodCalls) {
+			result = methodCalls.get(mce);
+		}
+		boolean isCached = result != null;
+
+		if (result == null) {
+			final String callName = mce.getNameAsString() + "/" + mce.getArguments().size();
+			final boolean hasFailedBefore;
+			synchronized (failedCalls) {
+				hasFailedBefore = failedCalls.containsKey(callName);
+			}
+
+			// The signature is only needed, if a call with this name failed before.
+			Optional<String> signature = hasFailedBefore ? toSignature(mce) : Optional.empty();
+			if (signature.isPresent()) {
+				synchronized (failedCalls) {
+					result = failedCalls.get(callName).get(signature.get());
+				}
+			}
+			isCached = result != null;
+
+			if (result == null) {
+				result = resolveOrFailure(mce::resolve, metaInfo, aCoupl);
+
+				// The symbol solver sometimes infers lambdas and method references only on
+				// the second attempt.
+				if (isFailure(result) && !(result instanceof ResolutionTimeoutException)
+						&& hasFunctionalExpression(mce)) {
+					result = resolveOrFailure(mce::resolve, metaInfo, aCoupl);
+				}
+
+				if (isFailure(result)) {
+					if (!hasFailedBefore) {
+						signature = toSignature(mce);
+					}
+					if (signature.isPresent()) {
+						final String key = signature.get();
+						final Object failure = result;
+						synchronized (failedCalls) {
+							failedCalls.computeIfAbsent(callName, n -> new HashMap<>()).put(key, failure);
+						}
+					}
+				}
+			}
+			synchronized (methodCalls) {
+				methodCalls.put(mce, result);
+			}
+		}
+
+		if (isCached && isFailure(result)) {
+			metaInfo.countAsCachedFailure(aCoupl);
+		}
+		return unwrap(result, ResolvedMethodDeclaration.class);
+	}
+
+	/**
+	 * Get the signature of a call: the type of its scope, its type arguments, its
+	 * name and the types of its arguments. A type that can not be resolved is
+	 * written as {@code ?}, the call itself can not be resolved then either. Calls
+	 * with a lambda or a method reference, calls of a local or anonymous class and
+	 * calls of a type variable have no signature, because it would not determine
+	 * the called method.
+	 *
+	 * @param mce
+	 * @return the signature of the call, if it has one.
+	 */
+	private Optional<String> toSignature(final MethodCallExpr mce) {
+
+		if (hasFunctionalExpression(mce))
+			return Optional.empty();
+
+		try {
+			return Optional.ofNullable(ResolutionExecutor.getInstance().execute(() -> {
+
+				final StringBuilder signature = new StringBuilder();
+				final String scopeType = mce.getScope().isPresent() ? toScopeType(mce.getScope().get())
+						: toEnclosingType(mce);
+				if (scopeType == null)
+					return null;
+
+				signature.append(scopeType).append('#');
+				mce.getTypeArguments().ifPresent(typeArguments -> signature.append(typeArguments));
+				signature.append(mce.getNameAsString()).append('(');
+
+				for (final Expression argument : mce.getArguments()) {
+					final String argumentType = toType(argument);
+					if (argumentType == null)
+						return null;
+					signature.append(argumentType).append(',');
+				}
+				return signature.append(')').toString();
+			}));
+
+		} catch (final RuntimeException | StackOverflowError e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Get the type of the scope of a call. Names, that are not a variable, and
+	 * qualified names may be the name of a type. If they can not be resolved, they
+	 * are qualified with the enclosing type, because the imports decide, which
+	 * type they name.
+	 *
+	 * @param scope
+	 * @return the type of the scope or {@code null}.
+	 */
+	private String toScopeType(final Expression scope) {
+
+		if (scope instanceof ThisExpr && ((ThisExpr) scope).getTypeName().isEmpty()
+				|| scope instanceof SuperExpr && ((SuperExpr) scope).getTypeName().isEmpty()) {
+			final String enclosingType = toEnclosingType(scope);
+			return enclosingType == null ? null : scope + " " + enclosingType;
+		}
+
+		final String type = toType(scope);
+		if (type == null || !type.startsWith("?"))
+			return type;
+
+		if (scope instanceof FieldAccessExpr
+				|| scope instanceof NameExpr && findDeclaredType((NameExpr) scope).isEmpty()) {
+			final String enclosingType = toEnclosingType(scope);
+			return enclosingType == null ? null : "?" + scope + " " + enclosingType;
+		}
+		return type;
+	}
+
+	/**
+	 * Get the type of the given expression. The type of a variable is resolved
+	 * from its declared type, so it is resolved only once per compilation unit.
+	 * Must be called by the {@link ResolutionExecutor}.
+	 *
+	 * @param expression
+	 * @return the type, {@code ?} followed by the unresolvable symbol, or
+	 *         {@code null} for a type variable.
+	 */
+	private String toType(final Expression expression) {
+
+		Object result = null;
+		if (expression instanceof NameExpr) {
+			final Optional<Type> declaredType = findDeclaredType((NameExpr) expression);
+			if (declaredType.isPresent() && declaredType.get() instanceof ReferenceType) {
+				result = resolveCached((ReferenceType) declaredType.get(), SymbolResolutionCache::callOrFailure);
+			}
+		}
+
+		if (result == null) {
+			try {
+				result = expression.calculateResolvedType();
+			} catch (final RuntimeException | StackOverflowError e) {
+				result = e;
+			}
+		}
+
+		if (result instanceof UnsolvedSymbolException)
+			return "?" + ((UnsolvedSymbolException) result).getName();
+		if (isFailure(result))
+			return "?" + result.getClass().getSimpleName();
+
+		final ResolvedType type = (ResolvedType) result;
+		return type.isTypeVariable() || type.isWildcard() ? null : type.describe();
+	}
+
+	/**
+	 * Find the declared type of the variable, parameter or field with the given
+	 * name.
+	 *
+	 * @param name
+	 * @return the declared type, if the name is a variable.
+	 */
+	private static Optional<Type> findDeclaredType(final NameExpr name) {
+
+		final ResolvedValueDeclaration declaration;
+		try {
+			declaration = name.resolve();
+		} catch (final RuntimeException e) {
+			return Optional.empty();
+		}
+
+		if (declaration instanceof JavaParserVariableDeclaration)
+			return Optional.of(((JavaParserVariableDeclaration) declaration).getVariableDeclarator().getType());
+		if (declaration instanceof JavaParserFieldDeclaration)
+			return Optional.of(((JavaParserFieldDeclaration) declaration).getVariableDeclarator().getType());
+		if (declaration instanceof JavaParserParameterDeclaration)
+			return Optional.of(((JavaParserParameterDeclaration) declaration).getWrappedNode().getType());
+		return Optional.empty();
+	}
+
+	/**
+	 * Get the qualified name of the type enclosing the given node.
+	 *
+	 * @param node
+	 * @return the qualified name or {@code null} within a local or anonymous
+	 *         class.
+	 */
+	private static String toEnclosingType(final Node node) {
+
+		Node parent = node;
+		while (parent.getParentNode().isPresent()) {
+			parent = parent.getParentNode().get();
+
+			if (parent instanceof ObjectCreationExpr && ((ObjectCreationExpr) parent).getAnonymousClassBody().isPresent()
+					|| parent instanceof ClassOrInterfaceDeclaration
+							&& ((ClassOrInterfaceDeclaration) parent).isLocalClassDeclaration())
+				return null;
+			if (parent instanceof TypeDeclaration<?>)
+				return ((TypeDeclaration<?>) parent).getFullyQualifiedName().orElse(null);
+		}
+		return null;
+	}
+
+	/**
+	 * Check if a lambda or a method reference is part of the call.
+	 *
+	 * @param mce
+	 * @return {@code true} if the call has a lambda or a method reference,
+	 *         otherwise {@code false}
+	 */
+	private static boolean hasFunctionalExpression(final MethodCallExpr mce) {
+		return mce.findFirst(LambdaExpr.class).isPresent() || mce.findFirst(MethodReferenceExpr.class).isPresent();
+	}
+
+	/**
+	 * Resolves the given type. Within a compilation unit the same type string is
+	 * resolved only once, which is exact apart from nested types shadowing each
+	 * other in the same file.
+	 *
+	 * @param type
+	 * @param metaInfo counts failures served from the cache.
+	 * @param aCoupl   metric the type is resolved for.
+	 * @return the resolved type.
+	 * @throws RuntimeException   if the type could not be resolved.
+	 * @throws StackOverflowError if the symbol solver ran into a too deep
+	 *                            recursion.
+	 */
+	public ResolvedType resolve(final ReferenceType type, final MetaInfo metaInfo, final ACoupling aCoupl) {
+
+		final Optional<CompilationUnit> ocu = type.findCompilationUnit();
+		if (ocu.isEmpty())
+			return ResolutionExecutor.getInstance().execute(type::resolve);
+
+		Object result;
+		synchronized (types) {
+			result = types.getOrDefault(ocu.get(), Map.of()).get(type.toString());
+		}
+
+		if (result == null) {
+			result = resolveCached(type, resolution -> resolveOrFailure(resolution, metaInfo, aCoupl));
+		} else if (isFailure(result)) {
+			metaInfo.countAsCachedFailure(aCoupl);
+		}
+		return unwrap(result, ResolvedType.class);
+	}
+
+	/**
+	 * Resolves the given type with the given runner, unless it was resolved before
+	 * within its compilation unit.
+	 *
+	 * @param type
+	 * @param runner runs the resolution and returns its result or error.
+	 * @return the result or the error raised by the symbol solver, {@code null}
+	 *         if the type is not part of a compilation unit.
+	 */
+	private Object resolveCached(final ReferenceType type, final Function<Callable<Object>, Object> runner) {
+
+		final Optional<CompilationUnit> ocu = type.findCompilationUnit();
+		if (ocu.isEmpty())
+			return null;
+
+		final String key = type.toString();
+		Object result;
+		synchronized (types) {
+			result = types.getOrDefault(ocu.get(), Map.of()).get(key);
+		}
+
+		if (result == null) {
+			result = runner.apply(type::resolve);
+			final Object resolved = result;
+			synchronized (types) {
+				types.computeIfAbsent(ocu.get(), cu -> new HashMap<>()).put(key, resolved);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Runs the given resolution with the {@link ResolutionExecutor}. Resolutions
+	 * that exceed their time budget are counted as timeout.
+	 *
+	 * @param resolution
+	 * @param metaInfo   counts timeouts.
+	 * @param aCoupl     metric the resolution is done for.
+	 * @return the result or the error raised by the symbol solver.
+	 */
+	private static Object resolveOrFailure(final Callable<Object> resolution, final MetaInfo metaInfo,
+			final ACoupling aCoupl) {
+		try {
+			return ResolutionExecutor.getInstance().execute(resolution);
+		} catch (final ResolutionTimeoutException e) {
+			metaInfo.countAsTimeout(aCoupl);
+			return e;
+		} catch (final RuntimeException | StackOverflowError e) {
+			return e;
+		}
+	}
+
+	/**
+	 * Runs the given resolution on the current thread, that has to be a thread of
+	 * the {@link ResolutionExecutor}.
+	 *
+	 * @param resolution
+	 * @return the result or the error raised by the symbol solver.
+	 */
+	private static Object callOrFailure(final Callable<Object> resolution) {
+		try {
+			return resolution.call();
+		} catch (final Exception | StackOverflowError e) {
+			return e;
+		}
+	}
+
+	/**
+	 * Check if the given result is an error of the symbol solver.
+	 *
+	 * @param result
+	 * @return {@code true} if it is an error, otherwise {@code false}
+	 */
+	private static boolean isFailure(final Object result) {
+		return result instanceof RuntimeException || result instanceof StackOverflowError;
+	}
+
+	/**
+	 * Returns a cached result or raises the cached error.
+	 *
+	 * @param <T>
+	 * @param result
+	 * @param type
+	 * @return the cached result.
+	 */
+	private static <T> T unwrap(final Object result, final Class<T> type) {
+
+		if (result instanceof RuntimeException)
+			throw (RuntimeException) result;
+		if (result instanceof StackOverflowError)
+			throw (StackOverflowError) result;
+		return type.cast(result);
+	}
+
+	/**
+	 * Removes all results cached by AST nodes, so the nodes can be garbage
+	 * collected. The signatures of failed calls are kept.
+	 */
+	public void clear() {
+		synchronized (methodCalls) {
+			methodCalls.clear();
+		}
+		synchronized (types) {
+			types.clear();
+		}
+	}
+
+	/**
+	 * Removes all cached results including the signatures of failed calls, before
+	 * a new run.
+	 */
+	public void reset() {
+		clear();
+		synchronized (failedCalls) {
+			failedCalls.clear();
+		}
+	}
+}
@@ -323,7 +323,7 @@ public class DataTransformer {
 		if (packageCoupl == null)
 			return results;
 
-		final Set<String> allPackageNames = packageCoupl.storeVisitor;
+		final Set<String> allPackageNames = packageCoupl.getStoreVisitor();
 		Map<String, Integer> packageSum = new HashMap<>();
 		packageSum = sumMetric(packageCoupl.getRegisteredCouplings(), allPackageNames);
 
@@ -0,0 +1,222 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cau.tools;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import de.cau.config.Configuration;
+
+/**
+ * Aggregated statistics of failed resolutions. Errors are counted per metric,
+ * per error type and per source class. Only a bounded reservoir of sample
+ * messages is kept, every error has the same chance to be part of it. As long
+ * as there are not more errors than {@link Configuration#errorSampleSize}, all
+ * messages are kept in the order they occurred.
+ *
+ */
+public class ErrorStatistics {
+
+	private static final int TOP_SOURCE_CLASSES = 20;
+
+	private final Map<String, LongAdder> perMetric;
+	private final Map<String, LongAdder> perErrorType;
+	private final Map<String, LongAdder> perSourceClass;
+	private final List<String> samples;
+	private long errorCount;
+
+	/**
+	 * Constructor
+	 */
+	public ErrorStatistics() {
+		this.perMetric = new ConcurrentHashMap<>();
+		this.perErrorType = new ConcurrentHashMap<>();
+		this.perSourceClass = new ConcurrentHashMap<>();
+		this.samples = new ArrayList<>();
+	}
+
+	/**
+	 * Counts an error, the message is only formatted if it becomes a sample.
+	 * 
+	 * @param metric      name of the metric
+	 * @param sourceClass class the error occurred in, {@code null} if unknown
+	 * @param errorType   name of the exception, {@code null} if unknown
+	 * @param msg         message of the error
+	 */
+	public void count(final String metric, final String sourceClass, final String errorType,
+			final Supplier<String> msg) {
+
+		perMetric.computeIfAbsent(metric, k -> new LongAdder()).increment();
+		if (errorType != null) {
+			perErrorType.computeIfAbsent(errorType, k -> new LongAdder()).increment();
+		}
+		if (sourceClass != null) {
+			perSourceClass.computeIfAbsent(sourceClass, k -> new LongAdder()).increment();
+		}
+		sample(msg);
+	}
+
+	/**
+	 * Reservoir sampling, the n-th error replaces a random sample with a
+	 * probability of capacity / n.
+	 * 
+	 * @param msg
+	 */
+	private synchronized void sample(final Supplier<String> msg) {
+
+		final int capacity = Configuration.errorSampleSize;
+		errorCount++;
+
+		if (samples.size() < capacity) {
+			samples.add(msg.get());
+		} else if (capacity > 0) {
+			final long index = ThreadLocalRandom.current().nextLong(errorCount);
+			if (index < capacity) {
+				samples.set((int) index, msg.get());
+			}
+		}
+	}
+
+	/**
+	 * Get the number of all errors.
+	 * 
+	 * @return number of errors
+	 */
+	public synchronized long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Get the sample messages.
+	 * 
+	 * @return sample messages
+	 */
+	public synchronized List<String> getSamples() {
+		return new ArrayList<>(samples);
+	}
+
+	/**
+	 * Get the number of errors per metric.
+	 * 
+	 * @return errors per metric, the most frequent first.
+	 */
+	public Map<String, Long> getCountsPerMetric() {
+		return sorted(perMetric);
+	}
+
+	/**
+	 * Get the number of errors per error type.
+	 * 
+	 * @return errors per error type, the most frequent first.
+	 */
+	public Map<String, Long> getCountsPerErrorType() {
+		return sorted(perErrorType);
+	}
+
+	/**
+	 * Get the number of errors per source class.
+	 * 
+	 * @return errors per source class, the most frequent first.
+	 */
+	public Map<String, Long> getCountsPerSourceClass() {
+		return sorted(perSourceClass);
+	}
+
+	/**
+	 * Removes all errors.
+	 */
+	public synchronized void clear() {
+		perMetric.clear();
+		perErrorType.clear();
+		perSourceClass.clear();
+		samples.clear();
+		errorCount = 0;
+	}
+
+	/**
+	 * Writes the report of all errors, without building it in memory first.
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeReport(final Appendable out) throws IOException {
+
+		final List<String> samplesCopy;
+		final long count;
+		synchronized (this) {
+			samplesCopy = new ArrayList<>(samples);
+			count = errorCount;
+		}
+
+		if (count > 0) {
+			out.append("\nError statistics:\n");
+			writeCounts(out, "per metric", getCountsPerMetric(), Integer.MAX_VALUE);
+			writeCounts(out, "per error type", getCountsPerErrorType(), Integer.MAX_VALUE);
+			writeCounts(out, "per class", getCountsPerSourceClass(), TOP_SOURCE_CLASSES);
+		}
+
+		out.append("\nError messages (").append(String.valueOf(count));
+		if (samplesCopy.size() < count) {
+			out.append(", ").append(String.valueOf(samplesCopy.size())).append(" samples");
+		}
+		out.append(") : \n");
+
+		for (final String msg : samplesCopy) {
+			out.append(msg).append('\n');
+		}
+	}
+
+	private static void writeCounts(final Appendable out, final String title, final Map<String, Long> counts,
+			final int limit) throws IOException {
+
+		if (counts.isEmpty())
+			return;
+
+		out.append('\t').append(title);
+		if (counts.size() > limit) {
+			out.append(" (top ").append(String.valueOf(limit)).append(" of ").append(String.valueOf(counts.size()))
+					.append(')');
+		}
+		out.append(":\n");
+
+		int written = 0;
+		for (final Map.Entry<String, Long> entry : counts.entrySet()) {
+			if (written++ == limit)
+				break;
+			out.append("\t\t").append(entry.getKey()).append('=').append(String.valueOf(entry.getValue()))
+					.append('\n');
+		}
+	}
+
+	private static Map<String, Long> sorted(final Map<String, LongAdder> counts) {
+
+		final Map<String, Long> result = new LinkedHashMap<>();
+		counts.entrySet()
+				.stream()
+				.sorted(Comparator.comparing((final Map.Entry<String, LongAdder> e) -> -e.getValue().sum())
+						.thenComparing(Map.Entry::getKey))
+				.forEach(e -> result.put(e.getKey(), e.getValue().sum()));
+		return result;
+	}
+}
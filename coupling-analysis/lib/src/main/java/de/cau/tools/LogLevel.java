@@ -0,0 +1,46 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cau.tools;
+
+/**
+ * Severity of a log message, messages below the configured level are dropped
+ * without being formatted.
+ */
+public enum LogLevel {
+	DEBUG, INFO, WARNING, ERROR, OFF;
+
+	/**
+	 * Get the level messages of the given tag are logged with. Every single
+	 * coupling is logged with {@link #DEBUG}.
+	 * 
+	 * @param tag
+	 * @return the level
+	 */
+	public static LogLevel of(final Tag tag) {
+
+		switch (tag) {
+		case NOT_RESOLVED:
+		case UNSUPPORTED:
+		case WARNING:
+		case PARSE_ERROR:
+			return WARNING;
+		case ERROR:
+			return ERROR;
+		default:
+			return DEBUG;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cau.tools;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue for log messages with any number of producers and
+ * a single consumer. Every slot carries a sequence number, that tells whether
+ * it is free for the producer or filled for the consumer of the current round.
+ *
+ */
+class LogRingBuffer {
+
+	private final int mask;
+	private final AtomicReferenceArray<String> messages;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail;
+	private long head;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity a power of two
+	 */
+	LogRingBuffer(final int capacity) {
+
+		if (Integer.bitCount(capacity) != 1)
+			throw new IllegalStateException("Capacity must be a power of two: " + capacity);
+
+		this.mask = capacity - 1;
+		this.messages = new AtomicReferenceArray<>(capacity);
+		this.sequences = new AtomicLongArray(capacity);
+		this.tail = new AtomicLong();
+
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Adds the message, may be called by any thread.
+	 * 
+	 * @param message
+	 * @return {@code false} if the buffer is full, otherwise {@code true}
+	 */
+	boolean offer(final String message) {
+
+		while (true) {
+			final long pos = tail.get();
+			final int slot = (int) pos & mask;
+			final long diff = sequences.get(slot) - pos;
+
+			if (diff == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					messages.set(slot, message);
+					sequences.set(slot, pos + 1);
+					return true;
+				}
+			} else if (diff < 0) {
+				// The consumer did not take the message of the last round yet.
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Takes the next message, may only be called by the consumer thread.
+	 * 
+	 * @return the message or {@code null} if there is none.
+	 */
+	String poll() {
+
+		final int slot = (int) head & mask;
+		if (sequences.get(slot) != head + 1)
+			return null;
+
+		final String message = messages.get(slot);
+		messages.set(slot, null);
+		sequences.set(slot, head + mask + 1);
+		head++;
+		return message;
+	}
+
+	/**
+	 * Get the number of messages added so far.
+	 * 
+	 * @return added messages
+	 */
+	long getOfferedCount() {
+		return tail.get();
+	}
+}
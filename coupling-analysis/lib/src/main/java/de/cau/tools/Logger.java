@@ -18,7 +18,10 @@ package de.cau.tools;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 import de.cau.config.Configuration;
 import de.cau.config.DirectoryTool;
@@ -26,13 +29,24 @@ import de.cau.monitor.metrics.ACoupling;
 
 /**
  * This is a very simple logger class, that stores the logs in a file and can
- * print to the console.
+ * print to the console. Messages are handed to a ring buffer and written in
+ * batches by a background thread, so logging does not wait for the file.
+ * Messages below {@link Configuration#logLevel} are dropped, messages given by
+ * a {@link Supplier} are not even formatted then.
  *
  */
 public class Logger {
 
-	private FileWriter writer;
-	private boolean isConsolePrinting = true;
+	private static final int BUFFER_CAPACITY = 1 << 16;
+	private static final int MAX_BATCH_SIZE = 4096;
+	private static final long IDLE_NANOS = 10_000_000L;
+
+	private final Object fileLock = new Object();
+	private final LogRingBuffer buffer;
+	private final Thread writerThread;
+	private Writer writer;
+	private volatile boolean isConsolePrinting = true;
+	private volatile long flushedCount;
 	public String fileName;
 	private static final String SEPARATION = "-------------------------------";
 
@@ -43,7 +57,7 @@ public class Logger {
 	 * 
 	 * @return
 	 */
-	public static Logger getInstance() {
+	public static synchronized Logger getInstance() {
 		if (loggerInstance == null) {
 			loggerInstance = new Logger("meta");
 			loggerInstance.isConsolePrinting(Configuration.isConsolePrinting);
@@ -55,12 +69,16 @@ public class Logger {
 	 * Creates new logger and forces to flush.
 	 */
 	public void updateChanges() {
-		try {
-			writer.flush();
-			writer.close();
-			this.writer = new FileWriter(DirectoryTool.getOutputRoot() + fileName + ".log", false);
-		} catch (final IOException e) {
-			e.printStackTrace();
+		flush();
+		synchronized (fileLock) {
+			try {
+				if (writer != null) {
+					writer.close();
+				}
+				this.writer = new FileWriter(DirectoryTool.getOutputRoot() + fileName + ".log", false);
+			} catch (final IOException e) {
+				e.printStackTrace();
+			}
 		}
 	}
 
@@ -71,6 +89,24 @@ public class Logger {
 		} catch (final IOException e) {
 			e.printStackTrace();
 		}
+
+		this.buffer = new LogRingBuffer(BUFFER_CAPACITY);
+		this.writerThread = new Thread(this::writeLoop, "logger-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+
+		// Messages still in the buffer are written before the application exits.
+		Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "logger-flush"));
+	}
+
+	/**
+	 * Check if messages of the given level are logged.
+	 * 
+	 * @param level
+	 * @return {@code true} if the level is enabled, otherwise {@code false}
+	 */
+	public boolean isEnabled(final LogLevel level) {
+		return level.compareTo(Configuration.logLevel) >= 0;
 	}
 
 	/**
@@ -90,7 +126,9 @@ public class Logger {
 	 * @param obj
 	 */
 	public void log(final Object obj) {
-		log(obj.toString());
+		if (isEnabled(LogLevel.INFO)) {
+			enqueue(obj.toString());
+		}
 	}
 
 	/**
@@ -99,27 +137,124 @@ public class Logger {
 	 * @param message
 	 */
 	public void log(final String message) {
+		if (isEnabled(LogLevel.INFO)) {
+			enqueue(message);
+		}
+	}
+
+	/**
+	 * Logs the message with the given level, it is only formatted if the level is
+	 * enabled.
+	 * 
+	 * @param level
+	 * @param message
+	 */
+	public void log(final LogLevel level, final Supplier<String> message) {
+		if (isEnabled(level)) {
+			enqueue(message.get());
+		}
+	}
+
+	/**
+	 * Hands the message to the writer thread, waits if the buffer is full.
+	 * 
+	 * @param message
+	 */
+	private void enqueue(final String message) {
+		while (!buffer.offer(message)) {
+			LockSupport.unpark(writerThread);
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * Writes all messages in batches till the application exits.
+	 */
+	private void writeLoop() {
+
+		final StringBuilder batch = new StringBuilder();
+		long writtenCount = 0;
+
+		while (true) {
+
+			int count = 0;
+			String message;
+			while (count < MAX_BATCH_SIZE && (message = buffer.poll()) != null) {
+				batch.append(message).append('\n');
+				count++;
+			}
+
+			if (count > 0) {
+				write(batch);
+				batch.setLength(0);
+				writtenCount += count;
+
+			} else {
+				if (flushedCount != writtenCount) {
+					flushFile();
+					flushedCount = writtenCount;
+				}
+				LockSupport.parkNanos(this, IDLE_NANOS);
+			}
+		}
+	}
+
+	private void write(final CharSequence batch) {
 
 		if (isConsolePrinting) {
-			System.out.println(message);
+			System.out.print(batch);
 		}
 
-		try {
-			this.writer.write(message + "\n");
+		synchronized (fileLock) {
+			if (writer == null)
+				return;
+			try {
+				writer.append(batch);
+			} catch (final IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
 
-		} catch (final IOException e) {
-			e.printStackTrace();
+	private void flushFile() {
+
+		synchronized (fileLock) {
+			if (writer == null)
+				return;
+			try {
+				writer.flush();
+			} catch (final IOException e) {
+				e.printStackTrace();
+			}
 		}
 	}
 
 	/**
-	 * Closes the logger.
+	 * Waits till all messages logged so far are written to the file.
+	 */
+	public void flush() {
+
+		final long target = buffer.getOfferedCount();
+		while (flushedCount < target && writerThread.isAlive()) {
+			LockSupport.unpark(writerThread);
+			LockSupport.parkNanos(IDLE_NANOS / 10);
+		}
+	}
+
+	/**
+	 * Closes the logger, all messages logged so far are written before.
 	 */
 	public void close() {
-		try {
-			this.writer.close();
-		} catch (final IOException e) {
-			e.printStackTrace();
+		flush();
+		synchronized (fileLock) {
+			try {
+				if (writer != null) {
+					writer.close();
+					writer = null;
+				}
+			} catch (final IOException e) {
+				e.printStackTrace();
+			}
 		}
 	}
 
@@ -151,46 +286,61 @@ public class Logger {
 	 * @param coupl
 	 */
 	public void logByTag(final String msg, final Tag tag, final MetaInfo metaInfo, final ACoupling coupl) {
+		logByTag(() -> msg, tag, metaInfo, coupl);
+	}
+
+	/**
+	 * Log by given tag, the message is only formatted if it is logged or counted
+	 * as error.
+	 * 
+	 * @param msg      message
+	 * @param tag
+	 * @param metaInfo
+	 * @param coupl
+	 */
+	public void logByTag(final Supplier<String> msg, final Tag tag, final MetaInfo metaInfo, final ACoupling coupl) {
 
 		switch (tag) {
 		case RESOLVED: {
-			logResolved(msg);
+			logTagged(Tag.RESOLVED, msg);
 			metaInfo.countAsResolved(coupl);
 			break;
 		}
 		case NOT_RESOLVED: {
-			logNotResolved(msg);
-			metaInfo.countAsError(coupl, msg);
+			final String message = msg.get();
+			logNotResolved(message);
+			metaInfo.countAsError(coupl, message);
 			break;
 		}
 		case ERROR: {
-			logError(msg);
+			logTagged(Tag.ERROR, msg);
 			break;
 		}
 		case UNSUPPORTED: {
-			logUnsupported(msg);
-			metaInfo.countAsError(coupl, msg);
+			final String message = msg.get();
+			logUnsupported(message);
+			metaInfo.countAsError(coupl, message);
 			break;
 		}
 		case WARNING: {
-			logWarning(msg);
+			logTagged(Tag.WARNING, msg);
 			break;
 		}
 		case SUCCESFULLY_PARSED: {
-			logSuccesfullParsed(msg);
+			logTagged(Tag.SUCCESFULLY_PARSED, msg);
 			break;
 		}
 		case PARSE_ERROR: {
-			logParseError(msg);
+			logTagged(Tag.PARSE_ERROR, msg);
 			break;
 		}
 		case NOT_PROJECT_PART: {
-			logResolved(msg);
+			logTagged(Tag.RESOLVED, msg);
 			metaInfo.countAsNotPart(coupl);
 			break;
 		}
 		case IGNORED: {
-			logIgnored(msg);
+			logTagged(Tag.IGNORED, msg);
 			metaInfo.countAsNotPart(coupl);
 			break;
 		}
@@ -199,43 +349,61 @@ public class Logger {
 		}
 	}
 
+	/**
+	 * Logs the message wrapped with the given tag, with the level of the tag.
+	 * 
+	 * @param tag
+	 * @param message
+	 */
+	private void logTagged(final Tag tag, final Supplier<String> message) {
+		log(LogLevel.of(tag), () -> wrapWithBraces(tag) + ": " + message.get());
+	}
+
 	public void logResolved(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.RESOLVED) + ": " + message);
+		logTagged(Tag.RESOLVED, () -> message);
 	}
 
 	public void logNotResolved(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.NOT_RESOLVED) + ": " + message);
+		logTagged(Tag.NOT_RESOLVED, () -> message);
 	}
 
 	public void logError(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.ERROR) + ": " + message);
+		logTagged(Tag.ERROR, () -> message);
 	}
 
 	public void logUnsupported(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.UNSUPPORTED) + ": " + message);
+		logTagged(Tag.UNSUPPORTED, () -> message);
+	}
+
+	public void logUnsupported(final Supplier<String> message) {
+		logTagged(Tag.UNSUPPORTED, message);
 	}
 
 	public void logWarning(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.WARNING) + ": " + message);
+		logTagged(Tag.WARNING, () -> message);
 	}
 
 	public void logSuccesfullParsed(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.SUCCESFULLY_PARSED) + ": " + message);
+		logTagged(Tag.SUCCESFULLY_PARSED, () -> message);
 	}
 
 	public void logParseError(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.PARSE_ERROR) + ": " + message);
+		logTagged(Tag.PARSE_ERROR, () -> message);
 	}
 
 	public void logFilteredOut(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.FILTERED_OUT) + ": " + message);
+		logTagged(Tag.FILTERED_OUT, () -> message);
+	}
+
+	public void logFilteredOut(final Supplier<String> message) {
+		logTagged(Tag.FILTERED_OUT, message);
 	}
 
 	public void logIgnored(final String message) {
-		loggerInstance.log(wrapWithBraces(Tag.IGNORED) + ": " + message);
+		logTagged(Tag.IGNORED, () -> message);
 	}
 
 	public void logSeparation() {
-		loggerInstance.log(SEPARATION);
+		log(SEPARATION);
 	}
 }
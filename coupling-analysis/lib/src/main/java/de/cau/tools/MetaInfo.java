@@ -16,29 +16,33 @@
 
 package de.cau.tools;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import de.cau.monitor.metrics.ACoupling;
 
 /**
- * This class is a container for meta data.
+ * This class is a container for meta data. Metrics may be counted from several
+ * threads at once.
  *
  */
 public class MetaInfo {
 
 	private final Map<ACoupling, Info> couplingTagToInfo;
 	private final String name;
-	List<String> errorMsgs;
+	private final ErrorStatistics errors;
 
 	public MetaInfo(final String name) {
 		this.name = name;
-		couplingTagToInfo = new HashMap<>();
-		errorMsgs = new LinkedList<>();
+		couplingTagToInfo = new ConcurrentHashMap<>();
+		errors = new ErrorStatistics();
 	}
 
 	/**
@@ -47,8 +51,8 @@ public class MetaInfo {
 	public void clearData() {
 		for (final ACoupling aCoupl : couplingTagToInfo.keySet()) {
 			couplingTagToInfo.get(aCoupl).clear();
-			errorMsgs.clear();
 		}
+		errors.clear();
 	}
 
 	/**
@@ -84,38 +88,75 @@ public class MetaInfo {
 
 	public void countAsResolved(final ACoupling aCoupl) {
 		final Info info = getInfoByCoupling(aCoupl);
-		info.all++;
-		info.resolved++;
+		info.all.increment();
+		info.resolved.increment();
 	}
 
 	public void countAsError(final ACoupling aCoupl, final String msg) {
+		countAsError(aCoupl, null, null, () -> msg);
+	}
+
+	/**
+	 * Counts an error with the class and the exception it occurred with. The
+	 * message is only formatted if it is kept as sample.
+	 * 
+	 * @param aCoupl
+	 * @param sourceClass class the error occurred in, {@code null} if unknown
+	 * @param errorType   name of the exception, {@code null} if unknown
+	 * @param msg
+	 */
+	public void countAsError(final ACoupling aCoupl, final String sourceClass, final String errorType,
+			final Supplier<String> msg) {
 		final Info info = getInfoByCoupling(aCoupl);
-		errorMsgs.add(aCoupl.getNameTag() + " => " + msg);
-		info.all++;
-		info.error++;
+		errors.count(aCoupl.getNameTag().toString(), sourceClass, errorType,
+				() -> aCoupl.getNameTag() + " => " + msg.get());
+		info.all.increment();
+		info.error.increment();
 		// if we do not know the connection we assume it is not part of project
-		info.notPartOfProject++;
+		info.notPartOfProject.increment();
 	}
 
 	public void countAsNotPart(final ACoupling aCoupl) {
 		final Info info = getInfoByCoupling(aCoupl);
-		info.all++;
-		info.resolved++;
-		info.notPartOfProject++;
+		info.all.increment();
+		info.resolved.increment();
+		info.notPartOfProject.increment();
 	}
 
 	public void countAsSelfConnection(final ACoupling aCoupl) {
 		final Info info = getInfoByCoupling(aCoupl);
-		info.all++;
-		info.resolved++;
-		info.selfConnections++;
+		info.all.increment();
+		info.resolved.increment();
+		info.selfConnections.increment();
 	}
 
 	public void countAsFiltered(final ACoupling aCoupl) {
 		final Info info = getInfoByCoupling(aCoupl);
-		info.all++;
-		info.resolved++;
-		info.notPartOfProject++;
+		info.all.increment();
+		info.resolved.increment();
+		info.notPartOfProject.increment();
+	}
+
+	/**
+	 * Counts a failed resolution, that was served by the cache without calling
+	 * the symbol solver again. The error itself is counted separately.
+	 * 
+	 * @param aCoupl
+	 */
+	public void countAsCachedFailure(final ACoupling aCoupl) {
+		final Info info = getInfoByCoupling(aCoupl);
+		info.cachedFailures.increment();
+	}
+
+	/**
+	 * Counts a symbol resolution, that exceeded its time budget and was
+	 * interrupted. The error itself is counted separately.
+	 * 
+	 * @param aCoupl
+	 */
+	public void countAsTimeout(final ACoupling aCoupl) {
+		final Info info = getInfoByCoupling(aCoupl);
+		info.timeouts.increment();
 	}
 
 	public Info getInfoByCoupling(final ACoupling aCoupl) {
@@ -136,30 +177,54 @@ public class MetaInfo {
 		final int[] result = new int[5];
 		final Info info = couplingTagToInfo.get(aCoupl);
 
-		result[0] = info.all;
-		result[1] = info.resolved;
-		result[2] = info.error;
-		result[3] = info.all - info.notPartOfProject;
-		result[4] = info.selfConnections;
+		result[0] = info.all.intValue();
+		result[1] = info.resolved.intValue();
+		result[2] = info.error.intValue();
+		result[3] = info.all.intValue() - info.notPartOfProject.intValue();
+		result[4] = info.selfConnections.intValue();
 
 		return result;
 	}
 
-	@Override
-	public String toString() {
-		String str = name + "-INFO:\n\n";
+	/**
+	 * Get the statistics of all errors.
+	 * 
+	 * @return error statistics
+	 */
+	public ErrorStatistics getErrorStatistics() {
+		return errors;
+	}
+
+	/**
+	 * Writes the meta data of all metrics and the error statistics.
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeReport(final Appendable out) throws IOException {
+
+		out.append(name).append("-INFO:\n\n");
 
 		final List<ACoupling> couplings = couplingTagToInfo.keySet().stream().collect(Collectors.toList());
 		Collections.sort(couplings);
 
 		for (final ACoupling aCoupl : couplings) {
-			str += "\t" + aCoupl.getNameTag() + ":\n \t" + couplingTagToInfo.get(aCoupl) + "\n\n";
+			out.append('\t').append(aCoupl.getNameTag().toString()).append(":\n \t")
+					.append(couplingTagToInfo.get(aCoupl).toString()).append("\n\n");
 		}
-		str += "\nError messages (" + errorMsgs.size() + ") : \n";
-		for (final String msg : errorMsgs) {
-			str += msg + "\n";
+		errors.writeReport(out);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder str = new StringBuilder();
+		try {
+			writeReport(str);
+		} catch (final IOException e) {
+			// A StringBuilder does not throw.
+			throw new UncheckedIOException(e);
 		}
-		return str;
+		return str.toString();
 	}
 
 	/**
@@ -170,29 +235,23 @@ public class MetaInfo {
 	 */
 	public void override(final ACoupling from, final ACoupling to) {
 
-		final Info infoFrom = getInfoByCoupling(from);
-		final Info infoTo = getInfoByCoupling(to);
-
-		final int all = infoFrom.all;
-		final int resolved = infoFrom.resolved;
-		final int error = infoFrom.error;
-		final int notPartOfProject = infoFrom.notPartOfProject;
-		final int selfConnections = infoFrom.selfConnections;
-
-		infoTo.override(all, resolved, error, notPartOfProject, selfConnections);
+		getInfoByCoupling(to).override(getInfoByCoupling(from));
 	}
 
 	/**
-	 * Little Container for some information.
+	 * Little Container for some information. The counters are striped, so
+	 * counting from several threads does not contend.
 	 *
 	 */
 	private class Info {
 
-		int all = 0;
-		int resolved = 0;
-		int error = 0;
-		int notPartOfProject = 0;
-		int selfConnections = 0;
+		final LongAdder all = new LongAdder();
+		final LongAdder resolved = new LongAdder();
+		final LongAdder error = new LongAdder();
+		final LongAdder notPartOfProject = new LongAdder();
+		final LongAdder selfConnections = new LongAdder();
+		final LongAdder cachedFailures = new LongAdder();
+		final LongAdder timeouts = new LongAdder();
 
 		private double getPercent(final int all, final int part) {
 
@@ -202,29 +261,53 @@ public class MetaInfo {
 			return (double) (int) (partAsDouble / allAsDouble * 10_000) / 100;
 		}
 
-		public void override(final int all, final int resolved, final int error, final int notPartOfProject,
-				final int selfConnections) {
-			this.all = all;
-			this.resolved = resolved;
-			this.error = error;
-			this.notPartOfProject = notPartOfProject;
-			this.selfConnections = selfConnections;
+		/**
+		 * Overrides all counters with the ones of the given info.
+		 * 
+		 * @param other
+		 */
+		public void override(final Info other) {
+			set(all, other.all);
+			set(resolved, other.resolved);
+			set(error, other.error);
+			set(notPartOfProject, other.notPartOfProject);
+			set(selfConnections, other.selfConnections);
+			set(cachedFailures, other.cachedFailures);
+			set(timeouts, other.timeouts);
+		}
+
+		private void set(final LongAdder counter, final LongAdder value) {
+			counter.reset();
+			counter.add(value.sum());
 		}
 
 		private void clear() {
-			all = 0;
-			resolved = 0;
-			error = 0;
-			notPartOfProject = 0;
-			selfConnections = 0;
+			all.reset();
+			resolved.reset();
+			error.reset();
+			notPartOfProject.reset();
+			selfConnections.reset();
+			cachedFailures.reset();
+			timeouts.reset();
 		}
 
 		@Override
 		public String toString() {
+
+			final int all = this.all.intValue();
+			final int resolved = this.resolved.intValue();
+			final int error = this.error.intValue();
+			final int notPartOfProject = this.notPartOfProject.intValue();
+			final int selfConnections = this.selfConnections.intValue();
+			final int cachedFailures = this.cachedFailures.intValue();
+			final int timeouts = this.timeouts.intValue();
+
 			return "[all=" + all + ", resolved=" + resolved + " (" + getPercent(all, resolved) + "%), error="
 					+ error + " (" + getPercent(all, error) + "%), project_part="
 					+ (all - notPartOfProject) + " (" + getPercent(all, all - notPartOfProject) + "%), selfConnections="
-					+ selfConnections + " (" + getPercent(all, selfConnections) + "%)]";
+					+ selfConnections + " (" + getPercent(all, selfConnections) + "%)"
+					+ (cachedFailures > 0 ? ", cachedFailures=" + cachedFailures : "")
+					+ (timeouts > 0 ? ", timeouts=" + timeouts : "") + "]";
 		}
 	}
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.bytecode.visitor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.bcel.classfile.ClassFormatException;
+import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.Constant;
+import org.apache.bcel.classfile.ConstantClass;
+import org.apache.bcel.classfile.JavaClass;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the header read from the constant pool is the same BCEL reads and
+ * that broken class files are rejected with a {@link ClassFormatException}.
+ *
+ */
+class ClassHeaderTest {
+
+	/**
+	 * The class read by the tests.
+	 */
+	static class Fixture implements Runnable, Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void run() {
+			new ArrayList<String>().add("fixture");
+		}
+	}
+
+	/**
+	 * An interface read by the tests.
+	 */
+	interface FixtureInterface {
+	}
+
+	private static byte[] readClassFile(final String name) throws IOException {
+		try (InputStream in = ClassHeaderTest.class.getResourceAsStream(name)) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static byte[] readFixture() throws IOException {
+		return readClassFile("ClassHeaderTest$Fixture.class");
+	}
+
+	@Test
+	void headerShouldBeTheSameBcelReads() throws IOException {
+
+		final byte[] bytes = readFixture();
+		final ClassHeader header = ClassHeader.read(bytes);
+		final JavaClass javaClass = new ClassParser(new ByteArrayInputStream(bytes), "Fixture.class").parse();
+
+		assertEquals(javaClass.getClassName(), header.getClassName());
+		assertEquals(javaClass.getPackageName(), header.getPackageName());
+		assertEquals(javaClass.getSuperclassName(), header.getSuperClassName());
+		assertArrayEquals(javaClass.getInterfaceNames(), header.getInterfaceNames());
+		assertFalse(header.isInterface());
+
+		final List<String> constantClassNames = new ArrayList<>();
+		for (final Constant constant : javaClass.getConstantPool().getConstantPool()) {
+			if (constant instanceof ConstantClass) {
+				constantClassNames.add(
+						(String) ((ConstantClass) constant).getConstantValue(javaClass.getConstantPool()));
+			}
+		}
+		assertEquals(constantClassNames, header.getConstantClassNames());
+	}
+
+	@Test
+	void interfaceShouldBeRecognized() throws IOException {
+		assertTrue(ClassHeader.read(readClassFile("ClassHeaderTest$FixtureInterface.class")).isInterface());
+	}
+
+	@Test
+	void truncatedClassFileShouldBeRejected() throws IOException {
+
+		final byte[] bytes = readFixture();
+		final ClassHeader expected = ClassHeader.read(bytes);
+
+		// Every prefix is either long enough for the whole header or rejected.
+		for (int length = 0; length < bytes.length; length++) {
+			final byte[] truncated = Arrays.copyOf(bytes, length);
+			try {
+				final ClassHeader header = ClassHeader.read(truncated);
+				assertEquals(expected.getClassName(), header.getClassName());
+				assertArrayEquals(expected.getInterfaceNames(), header.getInterfaceNames());
+			} catch (final ClassFormatException e) {
+				// Expected for a prefix that ends within the header.
+			}
+		}
+		assertThrows(ClassFormatException.class, () -> ClassHeader.read(Arrays.copyOf(bytes, 40)));
+	}
+
+	@Test
+	void corruptClassFileShouldBeRejected() throws IOException {
+
+		final byte[] notAClass = readFixture();
+		notAClass[0] = 0;
+		assertThrows(ClassFormatException.class, () -> ClassHeader.read(notAClass));
+
+		// The tag of the first constant is no valid tag.
+		final byte[] invalidTag = readFixture();
+		invalidTag[10] = 99;
+		assertThrows(ClassFormatException.class, () -> ClassHeader.read(invalidTag));
+
+		// The constant pool claims more constants than there are bytes.
+		final byte[] invalidCount = readFixture();
+		invalidCount[8] = (byte) 0xff;
+		invalidCount[9] = (byte) 0xff;
+		assertThrows(ClassFormatException.class, () -> ClassHeader.read(invalidCount));
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.bytecode.visitor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.Method;
+import org.junit.jupiter.api.Test;
+
+import de.cau.tools.Tag;
+
+/**
+ * Checks that the direct scan of the method code steps over all operands, like
+ * switch tables and wide instructions, and finds every method call.
+ *
+ */
+class MethodVisitorTest {
+
+	/**
+	 * The methods scanned by the tests.
+	 */
+	static class Fixture {
+
+		Fixture() {
+			super();
+		}
+
+		static int switches(final int key, final String text) {
+			int sum = 0;
+
+			// Dense keys compile to a tableswitch.
+			switch (key) {
+			case 1:
+				sum += Math.abs(key);
+				break;
+			case 2:
+				sum += text.length();
+				break;
+			case 3:
+				sum += Integer.bitCount(key);
+				break;
+			default:
+				break;
+			}
+
+			// Sparse keys compile to a lookupswitch.
+			switch (key) {
+			case 10:
+				sum += Math.max(key, 1);
+				break;
+			case 1000:
+				sum += Math.min(key, 1);
+				break;
+			case 100000:
+				sum += text.hashCode();
+				break;
+			default:
+				break;
+			}
+
+			// A large increment compiles to a wide iinc.
+			sum += 1000;
+			return sum + Objects.hashCode(text);
+		}
+
+		static Runnable lambda() {
+			return () -> Thread.yield();
+		}
+	}
+
+	private static List<String> scan(final String methodName) throws IOException {
+
+		final JavaClass javaClass;
+		try (InputStream in = MethodVisitorTest.class.getResourceAsStream("MethodVisitorTest$Fixture.class")) {
+			javaClass = new ClassParser(in, "MethodVisitorTest$Fixture.class").parse();
+		}
+
+		final List<String> calls = new ArrayList<>();
+		final MethodVisitor visitor = new MethodVisitor(javaClass.getClassName(), javaClass.getConstantPool(),
+				(classFrom, classTo, methodTo) -> calls.add(classTo + "." + methodTo));
+
+		for (final Method method : javaClass.getMethods()) {
+			if (method.getName().equals(methodName)) {
+				visitor.visitMethod(method);
+			}
+		}
+		return calls;
+	}
+
+	@Test
+	void callsAfterSwitchesAndWideInstructionsShouldBeFound() throws IOException {
+
+		assertEquals(List.of("java.lang.Math.abs", "java.lang.String.length", "java.lang.Integer.bitCount",
+				"java.lang.Math.max", "java.lang.Math.min", "java.lang.String.hashCode", "java.util.Objects.hashCode"),
+				scan("switches"));
+	}
+
+	@Test
+	void constructorCallsShouldBeSkipped() throws IOException {
+		assertEquals(List.of(), scan("<init>"));
+	}
+
+	@Test
+	void dynamicCallsShouldBeCountedAsLambda() throws IOException {
+		assertEquals(List.of(Tag.LAMBDA.toString() + ".run"), scan("lambda"));
+	}
+}
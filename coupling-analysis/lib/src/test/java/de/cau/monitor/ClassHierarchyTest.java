@@ -0,0 +1,120 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.monitor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ClassHierarchyTest {
+
+	private static final String[] NONE = {};
+
+	@Test
+	void ancestorsShouldBeTransitiveAndNearestFirst() {
+
+		final ClassHierarchy hierarchy = new ClassHierarchy();
+		hierarchy.addClass("a.C", "java.lang.Object", new String[] { "a.I" });
+		hierarchy.addClass("a.B", "a.C", NONE);
+		hierarchy.addClass("a.A", "a.B", new String[] { "a.J" });
+		hierarchy.addClass("a.J", "java.lang.Object", new String[] { "a.I" });
+
+		assertEquals(List.of("a.B", "a.J", "a.C", "java.lang.Object", "a.I"),
+				List.copyOf(hierarchy.getAncestors("a.A")));
+		assertEquals("a.B", hierarchy.getSuperClassName("a.A"));
+		assertArrayEquals(new String[] { "a.J" }, hierarchy.getInterfaceNames("a.A"));
+	}
+
+	@Test
+	void unknownClassesShouldHaveNoSuperTypes() {
+
+		final ClassHierarchy hierarchy = new ClassHierarchy();
+		hierarchy.addClass("a.A", "b.Unknown", NONE);
+
+		assertFalse(hierarchy.contains("b.Unknown"));
+		assertNull(hierarchy.getSuperClassName("b.Unknown"));
+		assertArrayEquals(NONE, hierarchy.getInterfaceNames("b.Unknown"));
+		assertEquals(List.of("b.Unknown"), List.copyOf(hierarchy.getAncestors("a.A")));
+		assertTrue(hierarchy.getAncestors("b.Unknown").isEmpty());
+	}
+
+	@Test
+	void changedClassShouldUpdateAncestorsOfSubTypesOnly() {
+
+		final ClassHierarchy hierarchy = new ClassHierarchy();
+		hierarchy.addClass("a.C", "java.lang.Object", NONE);
+		hierarchy.addClass("a.B", "a.C", NONE);
+		hierarchy.addClass("a.A", "a.B", NONE);
+		hierarchy.addClass("a.X", "java.lang.Object", NONE);
+
+		assertEquals(List.of("a.B", "a.C", "java.lang.Object"), List.copyOf(hierarchy.getAncestors("a.A")));
+		final Object unrelated = hierarchy.getAncestors("a.X");
+
+		hierarchy.addClass("a.B", "a.X", NONE);
+
+		assertEquals(List.of("a.B", "a.X", "java.lang.Object"), List.copyOf(hierarchy.getAncestors("a.A")));
+		assertEquals(List.of("a.X", "java.lang.Object"), List.copyOf(hierarchy.getAncestors("a.B")));
+		assertSame(unrelated, hierarchy.getAncestors("a.X"), "Ancestors of an unrelated class were dropped!");
+	}
+
+	@Test
+	void cyclicHierarchyShouldEnd() {
+
+		final ClassHierarchy hierarchy = new ClassHierarchy();
+		hierarchy.addClass("a.A", "a.B", NONE);
+		hierarchy.addClass("a.B", "a.A", NONE);
+
+		assertEquals(List.of("a.B"), List.copyOf(hierarchy.getAncestors("a.A")));
+	}
+
+	@Test
+	void clearShouldRemoveAllClasses() {
+
+		final ClassHierarchy hierarchy = new ClassHierarchy();
+		hierarchy.addClass("a.A", "java.lang.Object", NONE);
+		hierarchy.clear();
+
+		assertFalse(hierarchy.contains("a.A"));
+	}
+
+	@Test
+	void subTypesShouldFollowChangedSuperTypes() {
+
+		final ClassHierarchy hierarchy = new ClassHierarchy();
+		hierarchy.addClass("a.B", "a.C", new String[] { "a.I" });
+		hierarchy.addClass("a.A", "a.C", NONE);
+
+		assertEquals(Set.of("a.A", "a.B"), hierarchy.getSubTypes("a.C"));
+		assertEquals(Set.of("a.B"), hierarchy.getSubTypes("a.I"));
+		assertTrue(hierarchy.getSubTypes("a.A").isEmpty());
+
+		hierarchy.addClass("a.B", "a.A", NONE);
+
+		assertEquals(Set.of("a.A"), hierarchy.getSubTypes("a.C"));
+		assertEquals(Set.of("a.B"), hierarchy.getSubTypes("a.A"));
+		assertTrue(hierarchy.getSubTypes("a.I").isEmpty());
+	}
+}
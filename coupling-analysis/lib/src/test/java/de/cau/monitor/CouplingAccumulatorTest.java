@@ -0,0 +1,83 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CouplingAccumulatorTest {
+
+	@Test
+	void drainShouldMergeAndDropBuffersOfAllThreads() throws Exception {
+
+		final CouplingAccumulator accumulator = new CouplingAccumulator();
+		final Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 100; i++) {
+					accumulator.add(1, 2);
+				}
+			});
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(4, accumulator.getBufferCount());
+
+		final CouplingStore result = new CouplingStore();
+		assertTrue(accumulator.drainTo(result));
+		assertEquals(400, result.get(1, 2));
+		assertEquals(0, accumulator.getBufferCount());
+		assertFalse(accumulator.drainTo(result));
+	}
+
+	@Test
+	void threadShouldCountAgainAfterDrain() {
+
+		final CouplingAccumulator accumulator = new CouplingAccumulator();
+		final CouplingStore result = new CouplingStore();
+
+		accumulator.add(1, 2);
+		accumulator.drainTo(result);
+		accumulator.add(1, 2);
+		accumulator.add(2, 1);
+		assertEquals(1, accumulator.getBufferCount());
+		accumulator.drainTo(result);
+
+		assertEquals(2, result.get(1, 2));
+		assertEquals(1, result.get(2, 1));
+	}
+
+	@Test
+	void clearShouldRemoveBufferedCouplings() {
+
+		final CouplingAccumulator accumulator = new CouplingAccumulator();
+		final CouplingStore result = new CouplingStore();
+
+		accumulator.add(1, 2);
+		accumulator.clear();
+		accumulator.add(2, 1);
+		accumulator.drainTo(result);
+
+		assertEquals(0, result.get(1, 2));
+		assertEquals(1, result.get(2, 1));
+	}
+}
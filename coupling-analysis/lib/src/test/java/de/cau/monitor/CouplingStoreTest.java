@@ -0,0 +1,95 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CouplingStoreTest {
+
+	@Test
+	void countsShouldBeAddedPerDirection() {
+
+		final CouplingStore store = new CouplingStore();
+		store.add(1, 2, 1);
+		store.add(1, 2, 3);
+		store.add(2, 1, 1);
+
+		assertEquals(4, store.get(1, 2));
+		assertEquals(1, store.get(2, 1));
+		assertEquals(0, store.get(1, 1));
+		assertEquals(2, store.size());
+	}
+
+	@Test
+	void countsShouldSurviveRehashing() {
+
+		final CouplingStore store = new CouplingStore();
+		for (int from = 0; from < 200; from++) {
+			for (int to = 0; to < 50; to++) {
+				store.add(from, to, from + to);
+				store.add(from, to, 1);
+			}
+		}
+
+		assertEquals(200 * 50, store.size());
+		for (int from = 0; from < 200; from++) {
+			for (int to = 0; to < 50; to++) {
+				assertEquals(from + to + 1, store.get(from, to));
+			}
+		}
+	}
+
+	@Test
+	void forEachShouldVisitEveryCouplingOnce() {
+
+		final CouplingStore store = new CouplingStore();
+		store.add(0, Integer.MAX_VALUE, 2);
+		store.add(Integer.MAX_VALUE, 0, 3);
+		store.add(7, 7, 1);
+
+		final Map<String, Integer> visited = new HashMap<>();
+		store.forEach((from, to, count) -> assertNull(visited.put(from + "->" + to, count)));
+
+		assertEquals(Map.of("0->" + Integer.MAX_VALUE, 2, Integer.MAX_VALUE + "->0", 3, "7->7", 1), visited);
+	}
+
+	@Test
+	void clearShouldRemoveAllCouplingsAndCountAsModification() {
+
+		final CouplingStore store = new CouplingStore();
+		for (int i = 0; i < 100; i++) {
+			store.add(i, i + 1, 1);
+		}
+		final int modificationCount = store.getModificationCount();
+
+		store.clear();
+
+		assertNotEquals(modificationCount, store.getModificationCount());
+		assertEquals(0, store.size());
+		assertEquals(0, store.get(1, 2));
+		store.forEach((from, to, count) -> {
+			throw new IllegalStateException("Coupling left after clear!");
+		});
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.cau.config.Config;
+import de.cau.config.Configuration;
+import de.cau.config.Configuration.ReadFrom;
+
+@Config(isConsolePrinting = false)
+class ProjectFilterTest {
+
+	private final SymbolTable symbols = SymbolTable.getInstance();
+	private final ProjectFilter filter = ProjectFilter.getInstance();
+
+	@BeforeEach
+	void init() {
+		Configuration.configure(null, ProjectFilterTest.class, ReadFrom.FROM_ANNOTATION);
+	}
+
+	@AfterEach
+	void clear() {
+		Configuration.clearWhiteList();
+		symbols.clear();
+	}
+
+	@Test
+	void checkingNamesShouldNotInternThem() {
+
+		Configuration.addToWhiteList("a");
+
+		assertTrue(filter.isProjectPart("a.B"));
+		assertFalse(filter.isProjectPart("b.C"));
+		assertEquals(0, symbols.size());
+	}
+
+	@Test
+	void verdictsShouldBeDroppedAfterWhiteListChanged() {
+
+		final int id = symbols.intern("b.C");
+		assertFalse(filter.isProjectPart(id));
+
+		Configuration.addToWhiteList("b");
+
+		assertTrue(filter.isProjectPart(id));
+		assertTrue(filter.isProjectPart("b.C"));
+	}
+}
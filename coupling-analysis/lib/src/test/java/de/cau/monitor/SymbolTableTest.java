@@ -0,0 +1,129 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SymbolTableTest {
+
+	private final SymbolTable symbols = SymbolTable.getInstance();
+
+	@BeforeEach
+	@AfterEach
+	void clear() {
+		symbols.clear();
+	}
+
+	@Test
+	void namesShouldBeInternedOnce() {
+
+		final int a = symbols.intern("a.A");
+		final int b = symbols.intern("a.B");
+
+		assertEquals(0, a);
+		assertEquals(1, b);
+		assertEquals(a, symbols.intern(new String("a.A")));
+		assertEquals("a.B", symbols.getName(b));
+		assertEquals(2, symbols.size());
+	}
+
+	@Test
+	void nestedClassShouldMapToOuterClass() {
+
+		final int nested = symbols.intern("a.B$C$D");
+		final int outer = symbols.intern("a.B");
+
+		assertEquals(outer, symbols.getOuter(nested));
+		assertEquals(outer, symbols.getOuter(outer));
+		assertEquals(2, symbols.size());
+	}
+
+	@Test
+	void namesShouldSurviveGrowing() {
+
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(i, symbols.intern("a.A" + i));
+		}
+		for (int i = 0; i < 5000; i++) {
+			assertEquals("a.A" + i, symbols.getName(i));
+			assertEquals(i, symbols.getOuter(i));
+		}
+	}
+
+	@Test
+	void clearShouldRemoveAllNames() {
+
+		symbols.intern("a.A");
+		symbols.intern("a.B");
+		symbols.clear();
+
+		assertEquals(0, symbols.size());
+		assertThrows(IllegalStateException.class, () -> symbols.getName(1));
+		assertEquals(0, symbols.intern("a.B"));
+		assertEquals("a.B", symbols.getName(0));
+	}
+
+	@Test
+	void concurrentInterningShouldHandOutUniqueIds() throws Exception {
+
+		final ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<int[]>> results = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				results.add(pool.submit(() -> {
+					final int[] ids = new int[2000];
+					for (int i = 0; i < ids.length; i++) {
+						ids[i] = symbols.intern("a.A" + i + "$B");
+					}
+					return ids;
+				}));
+			}
+
+			final int[] first = results.get(0).get();
+			for (final Future<int[]> result : results) {
+				final int[] ids = result.get();
+				for (int i = 0; i < ids.length; i++) {
+					assertEquals(first[i], ids[i]);
+					assertEquals("a.A" + i + "$B", symbols.getName(ids[i]));
+					assertEquals("a.A" + i, symbols.getName(symbols.getOuter(ids[i])));
+				}
+			}
+
+			final Set<String> names = new HashSet<>();
+			for (int id = 0; id < symbols.size(); id++) {
+				names.add(symbols.getName(id));
+			}
+			assertEquals(4000, symbols.size());
+			assertEquals(4000, names.size());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ComponentDebtTest {
+
+	private static final int CYCLE_DEBT = 10;
+
+	@Test
+	void singleCycleShouldCostOneCycleDebtAndItsWeights() {
+
+		final CouplingGraph graph = CouplingGraph.of(Map.of(
+				"a", Map.of("b", 2),
+				"b", Map.of("c", 3),
+				"c", Map.of("a", 1)));
+
+		final ComponentDebt debt = new ComponentDebt(graph);
+
+		assertEquals(1, debt.getComponentCount());
+		assertEquals(1, debt.getIndependentCycles(0));
+		assertEquals(CYCLE_DEBT + 6, debt.getDebt(0, CYCLE_DEBT));
+	}
+
+	@Test
+	void selfLoopShouldBeCyclic() {
+
+		final CouplingGraph graph = CouplingGraph.of(Map.of("a", Map.of("a", 4, "b", 1)));
+
+		final ComponentDebt debt = new ComponentDebt(graph);
+		final int a = debt.getComponent(0);
+		final int b = debt.getComponent(1);
+
+		assertTrue(debt.isCyclic(a));
+		assertEquals(CYCLE_DEBT + 4, debt.getDebt(a, CYCLE_DEBT));
+		assertFalse(debt.isCyclic(b));
+		assertEquals(0, debt.getDebt(b, CYCLE_DEBT));
+	}
+
+	@Test
+	void debtShouldBeCountedPerComponent() {
+
+		final CouplingGraph graph = CouplingGraph.of(Map.of(
+				"a", Map.of("b", 1, "c", 5),
+				"b", Map.of("a", 2),
+				"c", Map.of("d", 1),
+				"d", Map.of("e", 1),
+				"e", Map.of("c", 1, "d", 1)));
+
+		final ComponentDebt debt = new ComponentDebt(graph);
+		final int ab = debt.getComponent(0);
+		final int cde = debt.getComponent(2);
+
+		assertEquals(2, debt.getComponentCount());
+		assertEquals(2, debt.getVertexCount(ab));
+		assertEquals(1, debt.getIndependentCycles(ab));
+		assertEquals(CYCLE_DEBT + 3, debt.getDebt(ab, CYCLE_DEBT));
+
+		// Four inner couplings between three classes are two independent cycles.
+		assertEquals(3, debt.getVertexCount(cde));
+		assertEquals(2, debt.getIndependentCycles(cde));
+		assertEquals(2 * CYCLE_DEBT + 4, debt.getDebt(cde, CYCLE_DEBT));
+	}
+
+	@Test
+	void largeGraphShouldBeMeasuredExactly() {
+
+		// 100k classes in rings of five with a chord, every ring couples to the next.
+		final int rings = 20_000;
+		final int n = rings * 5;
+		final String[] names = new String[n];
+		final int[] offsets = new int[n + 1];
+		final int[] targets = new int[rings * 7];
+		final int[] weights = new int[targets.length];
+
+		int edge = 0;
+		for (int v = 0; v < n; v++) {
+			names[v] = String.format("c%06d", v);
+			final int ring = v / 5;
+			final int next = ring * 5 + (v + 1) % 5;
+
+			if (v % 5 == 0) {
+				targets[edge] = next;
+				weights[edge++] = 2;
+				targets[edge] = next + 1;
+				weights[edge++] = 3;
+				if (ring + 1 < rings) {
+					targets[edge] = v + 5;
+					weights[edge++] = 7;
+				}
+			} else {
+				targets[edge] = next;
+				weights[edge++] = 1;
+			}
+			offsets[v + 1] = edge;
+		}
+		final CouplingGraph graph = new CouplingGraph(names, offsets, Arrays.copyOf(targets, edge),
+				Arrays.copyOf(weights, edge));
+
+		final ComponentDebt debt = new ComponentDebt(graph);
+
+		assertEquals(rings, debt.getComponentCount());
+		for (int ring = 0; ring < rings; ring++) {
+			final int c = debt.getComponent(ring * 5);
+			for (int v = ring * 5 + 1; v < ring * 5 + 5; v++) {
+				assertEquals(c, debt.getComponent(v));
+			}
+
+			// Six inner couplings between five classes are two independent cycles.
+			assertEquals(5, debt.getVertexCount(c));
+			assertEquals(2, debt.getIndependentCycles(c));
+			assertEquals(2 * CYCLE_DEBT + 2 + 3 + 4, debt.getDebt(c, CYCLE_DEBT));
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor.graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class CycleEnumeratorTest {
+
+	@Test
+	void everyCycleShouldBeListedOnceFromItsLowestVertex() {
+
+		final CouplingGraph graph = CouplingGraph.of(Map.of(
+				"a", Map.of("b", 1),
+				"b", Map.of("a", 1, "c", 1),
+				"c", Map.of("a", 1, "d", 1),
+				"d", Map.of("e", 1)));
+
+		final CycleEnumerator enumerator = new CycleEnumerator(graph, 100, 0);
+		final List<int[]> cycles = enumerator.findCycles();
+
+		assertEquals(Set.of("[0, 1]", "[0, 1, 2]"), toStrings(cycles));
+		assertEquals(2, cycles.size());
+		assertTrue(enumerator.isComplete());
+	}
+
+	@Test
+	void selfLoopShouldBeACycle() {
+
+		final CouplingGraph graph = CouplingGraph.of(Map.of("a", Map.of("a", 3, "b", 1)));
+
+		final List<int[]> cycles = new CycleEnumerator(graph, 100, 0).findCycles();
+
+		assertEquals(1, cycles.size());
+		assertArrayEquals(new int[] { 0 }, cycles.get(0));
+	}
+
+	@Test
+	void acyclicGraphShouldHaveNoCycles() {
+
+		final CouplingGraph graph = CouplingGraph.of(Map.of(
+				"a", Map.of("b", 1, "c", 1),
+				"b", Map.of("c", 1)));
+
+		final CycleEnumerator enumerator = new CycleEnumerator(graph, 100, 0);
+
+		assertTrue(enumerator.findCycles().isEmpty());
+		assertTrue(enumerator.isComplete());
+	}
+
+	@Test
+	void searchShouldStopAtMaximalNumberOfCycles() {
+
+		// Every pair and triple of a complete graph of four vertices is a cycle.
+		final Map<String, Integer> toAll = Map.of("a", 1, "b", 1, "c", 1, "d", 1);
+		final CouplingGraph graph = CouplingGraph.of(Map.of("a", without(toAll, "a"), "b", without(toAll, "b"),
+				"c", without(toAll, "c"), "d", without(toAll, "d")));
+
+		final CycleEnumerator complete = new CycleEnumerator(graph, 100, 0);
+		assertEquals(20, complete.findCycles().size());
+		assertTrue(complete.isComplete());
+
+		final CycleEnumerator truncated = new CycleEnumerator(graph, 5, 0);
+		assertEquals(5, truncated.findCycles().size());
+		assertFalse(truncated.isComplete());
+	}
+
+	private static Set<String> toStrings(final List<int[]> cycles) {
+		return cycles.stream().map(java.util.Arrays::toString).collect(Collectors.toSet());
+	}
+
+	private static Map<String, Integer> without(final Map<String, Integer> targets, final String target) {
+		return targets.entrySet().stream().filter(e -> !e.getKey().equals(target))
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IncrementalCycleTrackerTest {
+
+	private static final int CYCLE_DEBT = 10;
+
+	@Test
+	void closingCouplingShouldMergeAndRemovingShouldSplit() {
+
+		final IncrementalCycleTracker tracker = new IncrementalCycleTracker(CYCLE_DEBT);
+		tracker.addEdge("a", "b", 1);
+		tracker.addEdge("b", "c", 2);
+		assertEquals(0, tracker.getScore());
+		assertFalse(tracker.isInCycle("a"));
+
+		tracker.addEdge("c", "a", 3);
+		assertEquals(CYCLE_DEBT + 6, tracker.getScore());
+		assertEquals(1, tracker.getCyclicComponentCount());
+		assertTrue(tracker.isInCycle("b"));
+
+		tracker.removeEdge("b", "c", 1);
+		assertEquals(CYCLE_DEBT + 5, tracker.getScore());
+
+		tracker.removeEdge("b", "c");
+		assertEquals(0, tracker.getScore());
+		assertEquals(0, tracker.getCyclicComponentCount());
+		assertEquals(0, tracker.getWeight("b", "c"));
+	}
+
+	@Test
+	void randomChangesShouldMatchFullRecalculation() {
+
+		for (int seed = 0; seed < 200; seed++) {
+			final Random random = new Random(seed);
+			final int n = 2 + random.nextInt(seed < 100 ? 6 : 40);
+
+			final Map<String, Map<String, Integer>> couplings = new HashMap<>();
+			final int initial = random.nextInt(3 * n);
+			for (int i = 0; i < initial; i++) {
+				couplings.computeIfAbsent("v" + random.nextInt(n), k -> new HashMap<>())
+						.merge("v" + random.nextInt(n), 1 + random.nextInt(3), Integer::sum);
+			}
+			final IncrementalCycleTracker tracker = IncrementalCycleTracker.of(CouplingGraph.of(couplings),
+					CYCLE_DEBT);
+
+			for (int op = 0; op < 200; op++) {
+				change(random, n, couplings, tracker);
+
+				final ComponentDebt expected = new ComponentDebt(CouplingGraph.of(couplings));
+				long score = 0;
+				int cyclicComponents = 0;
+				for (int c = 0; c < expected.getComponentCount(); c++) {
+					if (expected.isCyclic(c)) {
+						score += expected.getDebt(c, CYCLE_DEBT);
+						cyclicComponents++;
+					}
+				}
+				assertEquals(score, tracker.getScore(), "Score differs, seed " + seed + " change " + op);
+				assertEquals(cyclicComponents, tracker.getCyclicComponentCount(),
+						"Cyclic components differ, seed " + seed + " change " + op);
+			}
+		}
+	}
+
+	/**
+	 * Adds or removes a random coupling to both the couplings and the tracker.
+	 */
+	private static void change(final Random random, final int n, final Map<String, Map<String, Integer>> couplings,
+			final IncrementalCycleTracker tracker) {
+
+		String from = "v" + random.nextInt(n);
+		String to = "v" + random.nextInt(n);
+		final int kind = random.nextInt(4);
+
+		if (kind < 2) {
+			final int count = 1 + random.nextInt(3);
+			tracker.addEdge(from, to, count);
+			couplings.computeIfAbsent(from, k -> new HashMap<>()).merge(to, count, Integer::sum);
+
+		} else if (kind == 2) {
+			tracker.removeEdge(from, to);
+			remove(couplings, from, to, Integer.MAX_VALUE);
+
+		} else {
+			// Remove part of an existing coupling.
+			final List<String> froms = new ArrayList<>(couplings.keySet());
+			if (froms.isEmpty())
+				return;
+			Collections.sort(froms);
+			from = froms.get(random.nextInt(froms.size()));
+
+			final List<String> tos = new ArrayList<>(couplings.get(from).keySet());
+			Collections.sort(tos);
+			to = tos.get(random.nextInt(tos.size()));
+
+			final int count = 1 + random.nextInt(3);
+			tracker.removeEdge(from, to, count);
+			remove(couplings, from, to, count);
+		}
+	}
+
+	private static void remove(final Map<String, Map<String, Integer>> couplings, final String from, final String to,
+			final int count) {
+
+		final Map<String, Integer> connectionCounts = couplings.get(from);
+		if (connectionCounts == null || !connectionCounts.containsKey(to))
+			return;
+
+		if (connectionCounts.get(to) > count) {
+			connectionCounts.put(to, connectionCounts.get(to) - count);
+		} else {
+			connectionCounts.remove(to);
+			if (connectionCounts.isEmpty()) {
+				couplings.remove(from);
+			}
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor.graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class StronglyConnectedComponentsTest {
+
+	@Test
+	void componentsShouldBeInReverseTopologicalOrder() {
+
+		final CouplingGraph graph = CouplingGraph.of(Map.of(
+				"a", Map.of("b", 1),
+				"b", Map.of("a", 1, "c", 1),
+				"c", Map.of("d", 1),
+				"d", Map.of("c", 1),
+				"e", Map.of("e", 1)));
+
+		final int[] componentOf = new int[graph.size()];
+		final int count = new StronglyConnectedComponents(graph).assignComponents(componentOf);
+
+		assertEquals(3, count);
+		assertEquals(componentOf[0], componentOf[1]);
+		assertEquals(componentOf[2], componentOf[3]);
+		assertNotEquals(componentOf[0], componentOf[4]);
+		assertTrue(componentOf[0] > componentOf[2], "Component has an edge to a higher component!");
+	}
+
+	@Test
+	void subGraphShouldOnlyUseMaskedVertices() {
+
+		final CouplingGraph graph = CouplingGraph.of(Map.of(
+				"a", Map.of("b", 1),
+				"b", Map.of("c", 1),
+				"c", Map.of("a", 1, "b", 1)));
+
+		final boolean[] mask = { false, true, true };
+		final List<int[]> components = new StronglyConnectedComponents(graph).findComponents(new int[] { 1, 2 },
+				mask);
+
+		assertEquals(1, components.size());
+		assertArrayEquals(new int[] { 1, 2 }, components.get(0));
+	}
+
+	@Test
+	void longCycleShouldNotOverflowTheStack() {
+
+		// One cycle through all vertices.
+		final int n = 1_000_000;
+		final String[] names = new String[n];
+		final int[] offsets = new int[n + 1];
+		final int[] targets = new int[n];
+		for (int v = 0; v < n; v++) {
+			names[v] = "v" + v;
+			offsets[v + 1] = v + 1;
+			targets[v] = (v + 1) % n;
+		}
+		final CouplingGraph graph = new CouplingGraph(names, offsets, targets, new int[n]);
+
+		assertEquals(1, new StronglyConnectedComponents(graph).assignComponents(new int[n]));
+	}
+}
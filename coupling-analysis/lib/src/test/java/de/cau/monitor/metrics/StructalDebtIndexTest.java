@@ -0,0 +1,86 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.monitor.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.cau.config.Config;
+import de.cau.config.Configuration;
+import de.cau.config.Configuration.ReadFrom;
+import de.cau.monitor.graph.CouplingGraph;
+
+@Config(isConsolePrinting = false)
+class StructalDebtIndexTest {
+
+	private static final CouplingGraph GRAPH = CouplingGraph.of(Map.of(
+			"a", Map.of("b", 2),
+			"b", Map.of("a", 1, "c", 1),
+			"c", Map.of("a", 3),
+			"d", Map.of("d", 4)));
+
+	@BeforeEach
+	void init() {
+		Configuration.configure(null, StructalDebtIndexTest.class, ReadFrom.FROM_ANNOTATION);
+	}
+
+	@AfterEach
+	void reset() {
+		Configuration.sdiMaxCycles = 100_000;
+	}
+
+	@Test
+	void cycleIndexShouldListEveryCycle() {
+
+		final Map<String, Integer> res = StructalDebtIndex.calculateCycleIndex(GRAPH);
+
+		// a -> b -> a: 10 + 3, a -> b -> c -> a: 10 + 6, d -> d: 10 + 4
+		assertEquals(43, res.get("SCORE"));
+		assertEquals(3, res.get("CYCLES"));
+		assertEquals(1, res.get("[a -> b -> a, a -> b -> c -> a, d -> d]"));
+		assertFalse(res.containsKey("TRUNCATED"));
+	}
+
+	@Test
+	void stoppedSearchShouldBeTruncated() {
+
+		Configuration.sdiMaxCycles = 1;
+		final Map<String, Integer> res = StructalDebtIndex.calculateCycleIndex(GRAPH);
+
+		assertEquals(1, res.get("CYCLES"));
+		assertEquals(1, res.get("TRUNCATED"));
+	}
+
+	@Test
+	void componentIndexShouldListEveryCyclicComponent() {
+
+		final Map<String, Integer> res = StructalDebtIndex.calculateComponentIndex(GRAPH);
+
+		// Four inner couplings between three classes are two independent cycles.
+		assertEquals(2 * 10 + 7, res.get("[a, b, c]"));
+		assertEquals(10 + 4, res.get("[d]"));
+		assertEquals(41, res.get("SCORE"));
+		assertEquals(2, res.get("CYCLIC_COMPONENTS"));
+		assertEquals(4, res.size());
+	}
+}
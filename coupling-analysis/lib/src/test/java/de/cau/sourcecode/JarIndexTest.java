@@ -0,0 +1,139 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.sourcecode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JarIndexTest {
+
+	private static final List<String> CLASSES = List.of("a/A", "a/b/B$Inner");
+
+	@TempDir
+	Path dir;
+
+	private Path jar;
+	private Path indexFile;
+
+	@BeforeEach
+	void setUp() throws IOException {
+
+		jar = dir.resolve("lib.jar");
+		indexFile = dir.resolve("index");
+
+		try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+			for (final String name : CLASSES) {
+				out.putNextEntry(new ZipEntry(name + ".class"));
+				out.write(new byte[] { 1 });
+				out.closeEntry();
+			}
+			out.putNextEntry(new ZipEntry("META-INF/notes.txt"));
+			out.closeEntry();
+		}
+	}
+
+	@Test
+	void classNamesShouldBeReadFromJar() throws IOException {
+		assertEquals(CLASSES, JarIndex.load(indexFile).getClassNames(jar.toString()));
+	}
+
+	@Test
+	void savedIndexShouldBeReadAgain() throws IOException {
+
+		final JarIndex index = JarIndex.load(indexFile);
+		index.getClassNames(jar.toString());
+		index.save(List.of(jar.toString()));
+
+		assertEquals(CLASSES, JarIndex.load(indexFile).getClassNames(jar.toString()));
+	}
+
+	@Test
+	void unchangedJarShouldBeTakenFromIndex() throws IOException {
+
+		Files.write(indexFile, createIndex(1, 1, "c/Cached".length()));
+		assertEquals(List.of("c/Cached"), JarIndex.load(indexFile).getClassNames(jar.toString()));
+	}
+
+	@Test
+	void brokenIndexShouldBeIgnored() throws IOException {
+
+		final List<byte[]> brokenIndices = List.of(createIndex(-1, 1, 8), createIndex(Integer.MAX_VALUE, 1, 8),
+				createIndex(1, -1, 8), createIndex(1, Integer.MAX_VALUE, 8), createIndex(1, 1, -8),
+				createIndex(1, 1, Integer.MAX_VALUE), new byte[] { 0x4A, 0x49 });
+
+		for (final byte[] brokenIndex : brokenIndices) {
+			Files.write(indexFile, brokenIndex);
+			assertEquals(CLASSES, JarIndex.load(indexFile).getClassNames(jar.toString()));
+		}
+
+		// Truncated index files.
+		final byte[] index = createIndex(1, 1, "c/Cached".length());
+		for (int length = 0; length < index.length; length++) {
+			Files.write(indexFile, Arrays.copyOf(index, length));
+			assertEquals(CLASSES, JarIndex.load(indexFile).getClassNames(jar.toString()));
+		}
+	}
+
+	/**
+	 * Creates an index file for the jar, that lists the single class 'c/Cached'
+	 * with the given counts.
+	 */
+	private byte[] createIndex(final int jarCount, final int classCount, final int nameLength) throws IOException {
+
+		final File file = jar.toFile();
+		final CRC32 crc = new CRC32();
+		crc.update(Files.readAllBytes(jar));
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(0x4A494458);
+			out.writeInt(1);
+			out.writeInt(jarCount);
+			writeString(out, jar.toString());
+			out.writeLong(file.length());
+			out.writeLong(file.lastModified());
+			out.writeLong(crc.getValue());
+			out.writeInt(classCount);
+			out.writeInt(nameLength);
+			out.write("c/Cached".getBytes(StandardCharsets.UTF_8));
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeString(final DataOutputStream out, final String str) throws IOException {
+		final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
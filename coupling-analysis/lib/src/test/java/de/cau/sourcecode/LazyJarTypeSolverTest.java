@@ -0,0 +1,68 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.sourcecode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+class LazyJarTypeSolverTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void unreadableJarShouldBeSkipped() throws IOException {
+
+		final Path broken = Files.write(dir.resolve("broken.jar"), new byte[] { 1, 2, 3 });
+		final Path jar = dir.resolve("fixture.jar");
+		final String entryName = Fixture.class.getName().replace('.', '/') + ".class";
+
+		try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+				final InputStream in = Fixture.class.getResourceAsStream("/" + entryName)) {
+			out.putNextEntry(new ZipEntry(entryName));
+			in.transferTo(out);
+			out.closeEntry();
+		}
+
+		final LazyJarTypeSolver solver = new LazyJarTypeSolver(List.of(broken.toString(), jar.toString()),
+				JarIndex.load(dir.resolve("index")));
+		solver.setParent(new ReflectionTypeSolver());
+
+		assertTrue(solver.tryToSolveType(Fixture.class.getCanonicalName()).isSolved());
+		assertEquals(Fixture.class.getCanonicalName(),
+				solver.solveType(Fixture.class.getCanonicalName()).getQualifiedName());
+		assertFalse(solver.tryToSolveType("de.cau.sourcecode.Missing").isSolved());
+	}
+
+	static class Fixture {
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.cau.sourcecode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.cau.config.Configuration;
+
+class ResolutionExecutorTest {
+
+	private final ResolutionExecutor executor = ResolutionExecutor.getInstance();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private int timeoutMillis;
+	private int stackSizeMB;
+
+	@BeforeEach
+	void init() {
+		timeoutMillis = Configuration.resolutionTimeoutMillis;
+		stackSizeMB = Configuration.resolutionStackSizeMB;
+		Configuration.resolutionTimeoutMillis = 100;
+		Configuration.resolutionStackSizeMB = 16;
+	}
+
+	@AfterEach
+	void reset() {
+		release.countDown();
+		Configuration.resolutionTimeoutMillis = timeoutMillis;
+		Configuration.resolutionStackSizeMB = stackSizeMB;
+	}
+
+	@Test
+	void stuckResolutionShouldNotBlockTheCaller() {
+
+		final String stuckThread = executor.execute(() -> Thread.currentThread().getName());
+
+		// Ignores interrupts until the end of the test, the call must not wait for it.
+		assertTimeoutPreemptively(Duration.ofSeconds(30),
+				() -> assertThrows(ResolutionTimeoutException.class, () -> executor.execute(() -> {
+					while (release.getCount() > 0) {
+						try {
+							release.await();
+						} catch (final InterruptedException e) {
+							// Like the symbol solver.
+						}
+					}
+					return null;
+				})));
+
+		final String nextThread = executor.execute(() -> Thread.currentThread().getName());
+		assertNotEquals(stuckThread, nextThread);
+		assertEquals(42, executor.execute(() -> 42));
+	}
+
+	@Test
+	void nestedResolutionShouldRunDirectly() {
+
+		final String thread = executor.execute(() -> Thread.currentThread().getName()
+				+ executor.execute(() -> Thread.currentThread().getName()));
+
+		assertEquals(thread.substring(0, thread.length() / 2), thread.substring(thread.length() / 2));
+	}
+}
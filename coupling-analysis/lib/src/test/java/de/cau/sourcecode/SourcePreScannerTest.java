@@ -0,0 +1,97 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.sourcecode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+
+import de.cau.sourcecode.SourcePreScanner.ScannedClass;
+
+class SourcePreScannerTest {
+
+	@Test
+	void packageAndFirstClassShouldBeFound() {
+
+		assertScanned("a.b", "Foo", "package a . b; import x.y.*; public final class Foo<T> extends Bar {}");
+		assertScanned("", "Foo", "interface Foo { class Inner {} }");
+		assertScanned("a", "Inner", "package a; enum E { A; class Inner {} } class Foo {}");
+	}
+
+	@Test
+	void commentsAndLiteralsShouldBeSkipped() {
+
+		assertScanned("a", "Foo", "/* package x; class Fake */ // class Fake2\n"
+				+ "package a; @interface Note { String v() default \"class Fake3\"; }\n"
+				+ "class Foo { char q = '\"'; String s = \"\\\" class Fake4\"; String t = \"\"\"\n class Fake5 \"\"\"; }");
+		assertScanned("a", "Foo", "package a; @Note(type = String.class) class Foo {}");
+	}
+
+	@Test
+	void fileWithoutClassShouldBeEmpty() {
+
+		assertTrue(SourcePreScanner.scanText("package a; enum E { A }").isEmpty());
+		assertTrue(SourcePreScanner.scanText("package a; @interface Note {}").isEmpty());
+		assertTrue(SourcePreScanner.scanText("package a; class").isEmpty());
+		assertTrue(SourcePreScanner.scanText("").isEmpty());
+	}
+
+	@Test
+	void scannerShouldAgreeWithParser() throws IOException {
+
+		final JavaParser parser = new JavaParser(new ParserConfiguration()
+				.setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_14));
+		final List<Path> sources;
+		try (final Stream<Path> files = Files.walk(Path.of("src"))) {
+			sources = files.filter(file -> file.toString().endsWith(".java")).collect(Collectors.toList());
+		}
+
+		for (final Path source : sources) {
+			final CompilationUnit cu = parser.parse(source).getResult().orElseThrow();
+			final Optional<ScannedClass> scanned = SourcePreScanner.scan(source.toString());
+
+			assertEquals(cu.findFirst(ClassOrInterfaceDeclaration.class).map(coi -> coi.getNameAsString()),
+					scanned.map(ScannedClass::getClassName), source.toString());
+			if (scanned.isPresent()) {
+				assertEquals(cu.getPackageDeclaration().map(p -> p.getNameAsString()).orElse(""),
+						scanned.get().getPackageName(), source.toString());
+			}
+		}
+	}
+
+	private static void assertScanned(final String packageName, final String className, final String text) {
+
+		final ScannedClass scanned = SourcePreScanner.scanText(text).orElseThrow();
+		assertEquals(packageName, scanned.getPackageName());
+		assertEquals(className, scanned.getClassName());
+	}
+}
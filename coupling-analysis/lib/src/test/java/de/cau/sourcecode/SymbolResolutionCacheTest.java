@@ -0,0 +1,100 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.cau.sourcecode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import de.cau.monitor.metrics.ACoupling;
+import de.cau.monitor.metrics.MethodToMethodCoupling;
+import de.cau.tools.MetaInfo;
+
+class SymbolResolutionCacheTest {
+
+	private final JavaParser parser = new JavaParser(
+			new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(new ReflectionTypeSolver())));
+	private final SymbolResolutionCache cache = SymbolResolutionCache.getInstance();
+	private final ACoupling coupling = new MethodToMethodCoupling();
+	private final MetaInfo metaInfo = new MetaInfo("test");
+
+	@BeforeEach
+	void setUp() {
+		cache.reset();
+		metaInfo.add(coupling);
+	}
+
+	@AfterEach
+	void tearDown() {
+		cache.reset();
+	}
+
+	@Test
+	void failedCallShouldFailFromCacheInLaterUnits() {
+
+		final MethodCallExpr first = parseCall("class A { void a(Missing m) { m.run(1); } }");
+		assertThrows(RuntimeException.class, () -> cache.resolve(first, metaInfo, coupling));
+		assertFalse(metaInfo.toString().contains("cachedFailures"));
+		cache.clear();
+
+		// Other variable, same scope type and argument types.
+		final MethodCallExpr second = parseCall("class B { void b(Missing other) { other.run(2); } }");
+		assertThrows(RuntimeException.class, () -> cache.resolve(second, metaInfo, coupling));
+		assertTrue(metaInfo.toString().contains("cachedFailures=1"));
+	}
+
+	@Test
+	void callWithOtherScopeTypeShouldBeResolved() {
+
+		final MethodCallExpr failing = parseCall("class A { void a(Missing m) { m.size(); } }");
+		assertThrows(RuntimeException.class, () -> cache.resolve(failing, metaInfo, coupling));
+		cache.clear();
+
+		final MethodCallExpr call = parseCall("class B { void b(java.util.List<String> l) { l.size(); } }");
+		assertEquals("java.util.List.size", cache.resolve(call, metaInfo, coupling).getQualifiedName());
+		assertFalse(metaInfo.toString().contains("cachedFailures"));
+	}
+
+	@Test
+	void resetShouldForgetFailedCalls() {
+
+		final MethodCallExpr first = parseCall("class A { void a(Missing m) { m.run(); } }");
+		assertThrows(RuntimeException.class, () -> cache.resolve(first, metaInfo, coupling));
+		cache.reset();
+
+		final MethodCallExpr second = parseCall("class B { void b(Missing m) { m.run(); } }");
+		assertThrows(RuntimeException.class, () -> cache.resolve(second, metaInfo, coupling));
+		assertFalse(metaInfo.toString().contains("cachedFailures"));
+	}
+
+	private MethodCallExpr parseCall(final String source) {
+		return parser.parse("package p; " + source).getResult().orElseThrow().findFirst(MethodCallExpr.class)
+				.orElseThrow();
+	}
+}
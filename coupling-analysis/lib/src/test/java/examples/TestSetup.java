@@ -31,6 +31,8 @@ import de.cau.monitor.CouplingMonitor;
 import de.cau.monitor.metrics.ACoupling;
 import de.cau.monitor.metrics.CouplingTag;
 import de.cau.sourcecode.ASTParser;
+import de.cau.sourcecode.SourceMetricEngine;
+import de.cau.sourcecode.SourcePreScanner;
 
 public class TestSetup {
 
@@ -59,17 +61,31 @@ public class TestSetup {
 		// -----------------------------------------------------------------------------
 
 		final ASTParser classCollector = new ASTParser();
-		final List<Optional<CompilationUnit>> ocus = classCollector.getAllCompilationUnits();
-		Configuration.addAllToWhiteList(List.of(whiteListPackages));
 
-		// Register classes (is needed only for Inheritance-Coupling)
-		ocus.forEach(ocu -> ocu.ifPresent(cu -> cu.findFirst(ClassOrInterfaceDeclaration.class).ifPresent(coi -> {
-			final String pack = cu.getPackageDeclaration().get().getNameAsString();
-			cm.registerClass(pack + "." + coi.getNameAsString());
+		if (Configuration.isStreamingSourceCode) {
+			final List<String> sources = classCollector.getAllSourceFiles();
+			Configuration.addAllToWhiteList(List.of(whiteListPackages));
 
-		})));
+			// Register classes (is needed only for Inheritance-Coupling)
+			sources.forEach(source -> SourcePreScanner.scan(source).ifPresent(
+					scanned -> cm.registerClass(scanned.getPackageName() + "." + scanned.getClassName())));
 
-		cm.registerSourceCodeCoupling(ocus);
+			final SourceMetricEngine engine = cm.prepareSourceCodeCoupling();
+			classCollector.parseEach(sources, cu -> cm.registerSourceCodeCoupling(engine, cu));
+			engine.finish();
+		} else {
+			final List<Optional<CompilationUnit>> ocus = classCollector.getAllCompilationUnits();
+			Configuration.addAllToWhiteList(List.of(whiteListPackages));
+
+			// Register classes (is needed only for Inheritance-Coupling)
+			ocus.forEach(ocu -> ocu.ifPresent(cu -> cu.findFirst(ClassOrInterfaceDeclaration.class).ifPresent(coi -> {
+				final String pack = cu.getPackageDeclaration().get().getNameAsString();
+				cm.registerClass(pack + "." + coi.getNameAsString());
+
+			})));
+
+			cm.registerSourceCodeCoupling(ocus);
+		}
 		resultSourcecode = new HashMap<>();
 
 		for (final ACoupling sCoupl : Configuration.getSourceCodeMetrics()) {
@@ -0,0 +1,45 @@
+/*
+ * Copyright [2021] [Hannah S. Fischer und Yannick Josuttis]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package examples.example5;
+
+import org.junit.jupiter.api.BeforeAll;
+
+import de.cau.config.Config;
+import de.cau.monitor.metrics.CouplingTag;
+import examples.TestSetup;
+
+/**
+ * Runs all tests of {@link Example5Test} with the streaming bytecode analysis
+ * on two worker threads.
+ * 
+ */
+@Config(sourceCodeInputRoot = TestSetup.SOURCECODE_ROOT_TO_TEST_EXAMPLES, byteCodeInputRoot = TestSetup.BYTECODE_ROOT_TO_TEST_EXAMPLES
+		+ "/example5", sourceCodeMetrics = { CouplingTag.METHOD_TO_METHOD }, byteCodeMetrics = {
+				CouplingTag.METHOD_TO_METHOD }, isStreamingByteCode = true, workerThreads = 2, isConsolePrinting = false)
+class Example5StreamingTest extends Example5Test {
+
+	@BeforeAll
+	static void init() {
+		init(Example5StreamingTest.class, "examples.example5");
+	}
+
+	@BeforeAll
+	static void nullCheck() {
+		Example5Test.nullCheck();
+	}
+}